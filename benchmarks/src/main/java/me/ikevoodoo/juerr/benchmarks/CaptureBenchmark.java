@@ -0,0 +1,56 @@
+package me.ikevoodoo.juerr.benchmarks;
+
+import me.ikevoodoo.juerr.ProjectInfo;
+import me.ikevoodoo.juerr.UserError;
+import me.ikevoodoo.juerr.traces.StackTraceCause;
+import me.ikevoodoo.juerr.traces.StackTraceHelper;
+import me.ikevoodoo.juerr.traces.StackTraceLine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Capturing and analysing stack traces of different depths
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CaptureBenchmark {
+
+    @Param({"10", "100", "500"})
+    public int depth;
+
+    private Throwable throwable;
+    private List<StackTraceLine> lines;
+
+    @Setup
+    public void setup() {
+        ProjectInfo.register(CaptureBenchmark.class, "me.ikevoodoo.juerr.benchmarks");
+        this.throwable = Traces.throwAt(this.depth);
+        this.lines = StackTraceHelper.getInvolved(this.throwable);
+    }
+
+    @Benchmark
+    public UserError fromStacktrace() {
+        return UserError.fromStacktrace(this.throwable);
+    }
+
+    @Benchmark
+    public List<StackTraceLine> getInvolved() {
+        return StackTraceHelper.getInvolved(this.throwable);
+    }
+
+    @Benchmark
+    public StackTraceCause getCause() {
+        return StackTraceHelper.getCause(CaptureBenchmark.class, StackTraceHelper.getInvolved(this.throwable));
+    }
+
+    @Benchmark
+    public StackTraceCause getCauseResolved() {
+        return StackTraceHelper.getCause(CaptureBenchmark.class, this.lines);
+    }
+}
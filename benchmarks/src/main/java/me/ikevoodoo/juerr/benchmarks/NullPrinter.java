@@ -0,0 +1,24 @@
+package me.ikevoodoo.juerr.benchmarks;
+
+import me.ikevoodoo.juerr.Printer;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * A Printer that hands everything to a Blackhole
+ * */
+final class NullPrinter extends Printer<Blackhole> {
+
+    NullPrinter(Blackhole out) {
+        super(out);
+    }
+
+    @Override
+    public void printf(String message, Object... args) {
+        getOut().consume(String.format(message, args));
+    }
+
+    @Override
+    public void print(CharSequence text) {
+        getOut().consume(text.length());
+    }
+}
@@ -0,0 +1,120 @@
+package me.ikevoodoo.juerr.benchmarks;
+
+import me.ikevoodoo.juerr.ProjectInfo;
+import me.ikevoodoo.juerr.benchmarks.fixture.Fixtures;
+import me.ikevoodoo.juerr.index.ClassIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+/**
+ * Loading a project from a directory, a jar, and a directory with a class index
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProjectInfoBenchmark {
+
+    private static final String PACKAGE_PATH = Fixtures.class.getPackage().getName().replace('.', '/') + '/';
+
+    @Param({"directory", "jar", "index"})
+    public String layout;
+
+    private Path root;
+    private URLClassLoader loader;
+    private Class<?> fixture;
+
+    @Setup
+    public void setup() throws IOException, ClassNotFoundException {
+        List<Class<?>> classes = new ArrayList<>();
+        classes.add(Fixtures.class);
+        for (Class<?> nested : Fixtures.class.getDeclaredClasses()) {
+            classes.add(nested);
+        }
+
+        this.root = Files.createTempDirectory("juerr-bench");
+        Path classpath = this.root.resolve("classes");
+        for (Class<?> clazz : classes) {
+            Path file = classpath.resolve(PACKAGE_PATH + fileName(clazz));
+            Files.createDirectories(file.getParent());
+            try (InputStream in = Fixtures.class.getResourceAsStream(fileName(clazz))) {
+                Files.copy(in, file);
+            }
+        }
+
+        if (this.layout.equals("index")) {
+            Path index = classpath.resolve(ClassIndex.LOCATION);
+            Files.createDirectories(index.getParent());
+            List<String> names = new ArrayList<>();
+            classes.forEach(clazz -> names.add(clazz.getName()));
+            try (Writer out = new OutputStreamWriter(Files.newOutputStream(index), StandardCharsets.UTF_8)) {
+                ClassIndex.write(out, names);
+            }
+        }
+
+        if (this.layout.equals("jar")) {
+            classpath = jar(classpath, this.root.resolve("fixtures.jar"));
+        }
+
+        // No parent, only the fixture classpath is visible to the project scan
+        this.loader = new URLClassLoader(new URL[] {classpath.toUri().toURL()}, null);
+        this.fixture = Class.forName(Fixtures.class.getName(), false, this.loader);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        ProjectInfo.unload(this.fixture);
+        this.loader.close();
+        try (Stream<Path> paths = Files.walk(this.root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public List<Class<?>> load() throws Exception {
+        ProjectInfo.unload(this.fixture);
+        ProjectInfo.load(this.fixture);
+        return ProjectInfo.getClasses(this.fixture);
+    }
+
+    private static String fileName(Class<?> clazz) {
+        return clazz.getName().substring(clazz.getName().lastIndexOf('.') + 1) + ".class";
+    }
+
+    private static Path jar(Path classes, Path jar) throws IOException {
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar));
+             Stream<Path> paths = Files.walk(classes)) {
+            for (Path path : (Iterable<Path>) paths.sorted()::iterator) {
+                if (path.equals(classes)) continue;
+                String name = classes.relativize(path).toString().replace(path.getFileSystem().getSeparator(), "/");
+                if (Files.isDirectory(path)) {
+                    out.putNextEntry(new JarEntry(name + '/'));
+                } else {
+                    out.putNextEntry(new JarEntry(name));
+                    Files.copy(path, (OutputStream) out);
+                }
+                out.closeEntry();
+            }
+        }
+        return jar;
+    }
+}
@@ -0,0 +1,36 @@
+package me.ikevoodoo.juerr.benchmarks;
+
+import me.ikevoodoo.juerr.UserError;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering an already analysed error to a sink that discards it
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RenderBenchmark {
+
+    @Param({"10", "100", "500"})
+    public int depth;
+
+    private UserError error;
+    private NullPrinter printer;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        this.error = UserError.fromStacktrace(Traces.throwAt(this.depth));
+        this.printer = new NullPrinter(blackhole);
+    }
+
+    @Benchmark
+    public UserError printAll() {
+        return this.error.printAll(this.printer, "[Thread main] Uncaught: ");
+    }
+}
@@ -0,0 +1,62 @@
+package me.ikevoodoo.juerr.benchmarks;
+
+/**
+ * Creates throwables with a fixed amount of frames on top of the caller's stack
+ * <p>
+ * The frames call each other in a square-free order, no run of frames repeats back to back,
+ * so the traces are not folded like recursion and every depth renders every frame.
+ * The caller's own stack depends on the harness, it is the same for every benchmark parameter.
+ * */
+final class Traces {
+
+    private Traces() {
+
+    }
+
+    /**
+     * Throw from exactly {@code depth} frames
+     * */
+    static Throwable throwAt(int depth) {
+        try {
+            // The sequence starts with 2
+            c(0, depth);
+        } catch (IllegalStateException e) {
+            return e;
+        }
+        throw new AssertionError("unreachable");
+    }
+
+    /**
+     * The ternary Thue sequence, the differences of the Thue-Morse sequence, contains no squares
+     * */
+    private static int symbol(int index) {
+        return (Integer.bitCount(index + 1) & 1) - (Integer.bitCount(index) & 1) + 1;
+    }
+
+    private static void a(int index, int depth) {
+        if (++index == depth) throw new IllegalStateException("depth reached");
+        switch (symbol(index)) {
+            case 0: a(index, depth); break;
+            case 1: b(index, depth); break;
+            default: c(index, depth);
+        }
+    }
+
+    private static void b(int index, int depth) {
+        if (++index == depth) throw new IllegalStateException("depth reached");
+        switch (symbol(index)) {
+            case 0: a(index, depth); break;
+            case 1: b(index, depth); break;
+            default: c(index, depth);
+        }
+    }
+
+    private static void c(int index, int depth) {
+        if (++index == depth) throw new IllegalStateException("depth reached");
+        switch (symbol(index)) {
+            case 0: a(index, depth); break;
+            case 1: b(index, depth); break;
+            default: c(index, depth);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package me.ikevoodoo.juerr.benchmarks.fixture;
+
+/**
+ * A package of classes for ProjectInfo to scan
+ * */
+@SuppressWarnings("unused")
+public class Fixtures {
+    public static class C00 {} public static class C01 {} public static class C02 {} public static class C03 {}
+    public static class C04 {} public static class C05 {} public static class C06 {} public static class C07 {}
+    public static class C08 {} public static class C09 {} public static class C10 {} public static class C11 {}
+    public static class C12 {} public static class C13 {} public static class C14 {} public static class C15 {}
+    public static class C16 {} public static class C17 {} public static class C18 {} public static class C19 {}
+    public static class C20 {} public static class C21 {} public static class C22 {} public static class C23 {}
+    public static class C24 {} public static class C25 {} public static class C26 {} public static class C27 {}
+    public static class C28 {} public static class C29 {} public static class C30 {} public static class C31 {}
+}
@@ -0,0 +1,322 @@
+package me.ikevoodoo.juerr;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A Printer that hands text and errors to a single writer thread
+ * <p>
+ * Text and errors are put into a bounded lock-free ring buffer, the printing thread never waits on the
+ * underlying Printer. Errors are handed over as they are, so the underlying Printer renders them itself. What happens when the buffer is full is decided by the {@link OverflowPolicy}.
+ * Anything still buffered is written when the JVM shuts down.
+ *
+ * @see UserError#setExceptionHandler(Thread, Printer)
+ * */
+public class AsyncPrinter extends Printer<Printer<?>> implements AutoCloseable {
+
+    /**
+     * What to do with new text when the buffer is full
+     * */
+    public enum OverflowPolicy {
+        /**
+         * Discard the oldest buffered text to make room
+         * */
+        DROP_OLDEST,
+        /**
+         * Discard the new text
+         * */
+        DROP_NEWEST,
+        /**
+         * Wait until the writer thread made room
+         * */
+        BLOCK
+    }
+
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final OverflowPolicy policy;
+    private final int mask;
+    private final AtomicReferenceArray<Object> buffer;
+    private final AtomicLongArray sequences;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    // Once closed, everything left is written behind this lock, in order
+    private final Object closeLock = new Object();
+    private final Thread writer;
+    private final Thread shutdownHook;
+    private volatile boolean running = true;
+    private volatile boolean idle;
+
+    public AsyncPrinter(Printer<?> out) {
+        this(out, DEFAULT_CAPACITY, OverflowPolicy.DROP_OLDEST);
+    }
+
+    /**
+     * Create a new AsyncPrinter and start its writer thread
+     *
+     * @param out The Printer the writer thread prints to
+     * @param capacity The amount of texts and errors that can be buffered, rounded up to a power of two
+     * @param policy What to do when the buffer is full
+     * */
+    public AsyncPrinter(Printer<?> out, int capacity, OverflowPolicy policy) {
+        super(out);
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be positive");
+
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.policy = policy;
+        this.mask = size - 1;
+        this.buffer = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            this.sequences.set(i, i);
+        }
+
+        this.writer = new Thread(this::drainLoop, "juerr-async-printer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+
+        this.shutdownHook = new Thread(this::close, "juerr-async-printer-shutdown");
+        Runtime.getRuntime().addShutdownHook(this.shutdownHook);
+    }
+
+    @Override
+    public void printf(String message, Object... args) {
+        print(String.format(message, args));
+    }
+
+    @Override
+    public void print(CharSequence text) {
+        print(text, Thread.currentThread().getName(), System.currentTimeMillis());
+    }
+
+    @Override
+    public void printError(UserError error, String prefix) {
+        printErrors(Collections.singletonList(error), Collections.singletonList(prefix));
+    }
+
+    @Override
+    public void printErrors(List<UserError> errors, List<String> prefixes) {
+        printErrors(errors, prefixes, Thread.currentThread().getName(), System.currentTimeMillis());
+    }
+
+    @Override
+    void print(CharSequence text, String thread, long timestamp) {
+        // The text may be a reused buffer, copy it before handing it to another thread
+        enqueue(new Text(text.toString(), thread, timestamp));
+    }
+
+    @Override
+    void printErrors(List<UserError> errors, List<String> prefixes, String thread, long timestamp) {
+        enqueue(new Errors(new ArrayList<>(errors), new ArrayList<>(prefixes), thread, timestamp));
+    }
+
+    /**
+     * Wait until everything printed so far has been written
+     * */
+    public void flush() {
+        long target = this.tail.get();
+        while (this.running && this.completed.get() < target) {
+            LockSupport.unpark(this.writer);
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+    }
+
+    /**
+     * Stop the writer thread and write everything still buffered
+     * */
+    @Override
+    public void close() {
+        if (!this.running) return;
+        this.running = false;
+        LockSupport.unpark(this.writer);
+        try {
+            this.writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this.closeLock) {
+            drainAll();
+        }
+
+        if (Thread.currentThread() != this.shutdownHook) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(this.shutdownHook);
+            } catch (IllegalStateException e) {
+                // Already shutting down
+            }
+        }
+    }
+
+    /**
+     * Get the amount of texts and errors discarded because the buffer was full
+     *
+     * @return The amount of dropped texts and errors
+     * */
+    public long dropped() {
+        return this.dropped.get();
+    }
+
+    private void enqueue(Object item) {
+        if (!this.running) {
+            writeClosed(item);
+            return;
+        }
+
+        while (!offer(item)) {
+            switch (this.policy) {
+                case DROP_NEWEST:
+                    this.dropped.incrementAndGet();
+                    return;
+                case DROP_OLDEST:
+                    if (poll() != null) {
+                        this.dropped.incrementAndGet();
+                        this.completed.incrementAndGet();
+                    }
+                    break;
+                default:
+                    LockSupport.unpark(this.writer);
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+                    if (!this.running) {
+                        writeClosed(item);
+                        return;
+                    }
+            }
+        }
+
+        if (!this.running) {
+            // Lost the race with close, nothing else would write it
+            synchronized (this.closeLock) {
+                drainAll();
+            }
+        } else if (this.idle) {
+            LockSupport.unpark(this.writer);
+        }
+    }
+
+    private boolean offer(Object item) {
+        while (true) {
+            long position = this.tail.get();
+            int index = (int) (position & this.mask);
+            long difference = this.sequences.get(index) - position;
+            if (difference == 0) {
+                if (this.tail.compareAndSet(position, position + 1)) {
+                    this.buffer.lazySet(index, item);
+                    this.sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                return false;
+            }
+        }
+    }
+
+    private Object poll() {
+        while (true) {
+            long position = this.head.get();
+            int index = (int) (position & this.mask);
+            long difference = this.sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                if (this.head.compareAndSet(position, position + 1)) {
+                    Object item = this.buffer.get(index);
+                    this.buffer.lazySet(index, null);
+                    this.sequences.set(index, position + this.mask + 1);
+                    return item;
+                }
+            } else if (difference < 0) {
+                return null;
+            }
+        }
+    }
+
+    private void drainLoop() {
+        while (this.running) {
+            if (drain()) continue;
+
+            this.idle = true;
+            if (this.head.get() == this.tail.get()) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            this.idle = false;
+        }
+    }
+
+    private boolean drain() {
+        boolean any = false;
+        Object item;
+        while ((item = poll()) != null) {
+            write(item);
+            this.completed.incrementAndGet();
+            any = true;
+        }
+        return any;
+    }
+
+    /**
+     * Drain until the buffer is empty, waiting for producers that reserved a slot but didn't fill it yet
+     * */
+    private void drainAll() {
+        drain();
+        while (this.head.get() != this.tail.get()) {
+            Thread.yield();
+            drain();
+        }
+    }
+
+    private void writeClosed(Object item) {
+        synchronized (this.closeLock) {
+            // Whatever is still buffered was printed earlier
+            drainAll();
+            write(item);
+        }
+    }
+
+    private void write(Object item) {
+        try {
+            if (item instanceof Errors) {
+                Errors errors = (Errors) item;
+                getOut().printErrors(errors.errors, errors.prefixes, errors.thread, errors.timestamp);
+            } else {
+                Text text = (Text) item;
+                getOut().print(text.text, text.thread, text.timestamp);
+            }
+        } catch (Throwable e) {
+            // A failing Printer must not kill the writer thread, producers would wait on it forever
+        }
+    }
+
+    private static final class Text {
+        private final String text;
+        private final String thread;
+        private final long timestamp;
+
+        private Text(String text, String thread, long timestamp) {
+            this.text = text;
+            this.thread = thread;
+            this.timestamp = timestamp;
+        }
+    }
+
+    private static final class Errors {
+        private final List<UserError> errors;
+        private final List<String> prefixes;
+        private final String thread;
+        private final long timestamp;
+
+        private Errors(List<UserError> errors, List<String> prefixes, String thread, long timestamp) {
+            this.errors = errors;
+            this.prefixes = prefixes;
+            this.thread = thread;
+            this.timestamp = timestamp;
+        }
+    }
+}
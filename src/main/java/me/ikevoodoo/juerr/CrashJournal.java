@@ -0,0 +1,364 @@
+package me.ikevoodoo.juerr;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A Printer that appends errors as compact binary records to a memory-mapped file
+ * <p>
+ * Records are written straight into the mapped pages, so they survive the death of the
+ * process without an fsync per error. Space is reserved with an atomic append offset, writers
+ * never lock. When the journal is full new records are dropped.
+ * <p>
+ * Every record is a length, a commit marker, and the timestamp, thread name, message, reasons and help of the error.
+ * The length is written as soon as the space is reserved and the commit marker last, records of writers
+ * that died or are still writing are skipped by their length. Records start at multiples of 8 bytes,
+ * a record whose length was never written is skipped by scanning for the next committed one.
+ * Buffers are handled through {@link Buffer} so the class also runs on Java 8.
+ * Use {@link CrashJournal#read(Path)} or run this class with the journal path to render it again.
+ * */
+public class CrashJournal extends Printer<MappedByteBuffer> {
+
+    private static final long MAGIC = 0x4A554552_524A4E4CL; // "JUERRJNL"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int COMMITTED = 0x434F4D54; // "COMT"
+    private static final int ALIGNMENT = 8;
+    private static final ThreadBuffer<ByteBuffer> BUFFER = ThreadBuffer.of(() -> ByteBuffer.allocate(4096), ByteBuffer::capacity);
+
+    private final AtomicInteger position;
+    private final AtomicLong dropped = new AtomicLong();
+
+    private CrashJournal(MappedByteBuffer out, int position) {
+        super(out);
+        this.position = new AtomicInteger(position);
+    }
+
+    /**
+     * Open a journal, creating and pre-sizing the file if needed
+     * <p>
+     * Records already in an existing journal are kept, new records are appended after them.
+     *
+     * @param path The journal file
+     * @param size The size of the file in bytes, ignored if the file already exists
+     * @return The journal
+     * */
+    public static CrashJournal open(Path path, int size) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            boolean created = channel.size() == 0;
+            long mappedSize = created ? size : Math.min(channel.size(), Integer.MAX_VALUE);
+            if (mappedSize < HEADER_SIZE) throw new IOException("Journal size must be at least " + HEADER_SIZE + " bytes");
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, mappedSize);
+            if (created) {
+                buffer.putLong(0, MAGIC);
+                buffer.putInt(8, VERSION);
+                return new CrashJournal(buffer, HEADER_SIZE);
+            }
+
+            checkHeader(buffer, path);
+            return new CrashJournal(buffer, findEnd(buffer));
+        }
+    }
+
+    @Override
+    public void printf(String message, Object... args) {
+        print(String.format(message, args));
+    }
+
+    @Override
+    public void print(CharSequence text) {
+        print(text, Thread.currentThread().getName(), System.currentTimeMillis());
+    }
+
+    @Override
+    public void printError(UserError error, String prefix) {
+        append(System.currentTimeMillis(), Thread.currentThread().getName(), error, prefix);
+    }
+
+    @Override
+    void print(CharSequence text, String thread, long timestamp) {
+        append(timestamp, thread, text.toString(), null, null);
+    }
+
+    @Override
+    void printErrors(List<UserError> errors, List<String> prefixes, String thread, long timestamp) {
+        for (int i = 0; i < errors.size(); i++) {
+            append(timestamp, thread, errors.get(i), prefixes.get(i));
+        }
+    }
+
+    /**
+     * Get the amount of records that did not fit into the journal
+     *
+     * @return The amount of dropped records
+     * */
+    public long dropped() {
+        return this.dropped.get();
+    }
+
+    /**
+     * Read all committed records of a journal
+     *
+     * @param path The journal file
+     * @return The records, oldest first
+     * */
+    public static List<Entry> read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), Integer.MAX_VALUE));
+            checkHeader(buffer, path);
+
+            List<Entry> entries = new ArrayList<>();
+            int offset = HEADER_SIZE;
+            while (offset + RECORD_HEADER_SIZE <= buffer.limit()) {
+                int length = buffer.getInt(offset);
+                if (!fits(buffer, offset, length)) {
+                    offset = findNextCommitted(buffer, offset);
+                    if (offset == -1) break;
+                    continue;
+                }
+
+                if (buffer.getInt(offset + 4) == COMMITTED) {
+                    ByteBuffer record = buffer.duplicate();
+                    ((Buffer) record).position(offset + RECORD_HEADER_SIZE);
+                    ((Buffer) record).limit(offset + RECORD_HEADER_SIZE + length);
+                    try {
+                        entries.add(readEntry(record));
+                    } catch (BufferUnderflowException e) {
+                        // Corrupted record, skip it
+                    }
+                }
+                offset += align(RECORD_HEADER_SIZE + length);
+            }
+            return entries;
+        }
+    }
+
+    /**
+     * Render a journal to System.out
+     *
+     * @param args The path of the journal
+     * */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: CrashJournal <journal>");
+            return;
+        }
+
+        PrintStreamPrinter printer = new PrintStreamPrinter(System.out);
+        for (Entry entry : read(Paths.get(args[0]))) {
+            entry.printAll(printer);
+        }
+    }
+
+    private void append(long timestamp, String thread, UserError error, String prefix) {
+        append(timestamp, thread, prefix == null ? error.message() : prefix + error.message(), error.reasons(), error.help());
+    }
+
+    private void append(long timestamp, String thread, String message, List<UserErrorEntry> reasons, List<UserErrorEntry> help) {
+        ByteBuffer record = encode(timestamp, thread, message, reasons, help);
+        int length = record.remaining();
+        int size = align(RECORD_HEADER_SIZE + length);
+
+        MappedByteBuffer out = getOut();
+        int offset;
+        do {
+            offset = this.position.get();
+            if (offset + size > out.limit()) {
+                this.dropped.incrementAndGet();
+                BUFFER.release(record);
+                return;
+            }
+        } while (!this.position.compareAndSet(offset, offset + size));
+
+        // The length first, so the record can be skipped if this writer dies while writing it
+        out.putInt(offset, length);
+        ByteBuffer target = out.duplicate();
+        ((Buffer) target).position(offset + RECORD_HEADER_SIZE);
+        target.put(record);
+        out.putInt(offset + 4, COMMITTED);
+        BUFFER.release(record);
+    }
+
+    private static ByteBuffer encode(long timestamp, String thread, String message, List<UserErrorEntry> reasons, List<UserErrorEntry> help) {
+        ByteBuffer buffer = BUFFER.get();
+        ((Buffer) buffer).clear();
+        buffer = ensure(buffer, 8);
+        buffer.putLong(timestamp);
+        buffer = putString(buffer, thread);
+        buffer = putString(buffer, message);
+        buffer = putEntries(buffer, reasons);
+        buffer = putEntries(buffer, help);
+        ((Buffer) buffer).flip();
+        return buffer;
+    }
+
+    private static ByteBuffer putEntries(ByteBuffer buffer, List<UserErrorEntry> entries) {
+        int count = entries == null ? 0 : entries.size();
+        buffer = ensure(buffer, 4);
+        buffer.putInt(count);
+        for (int i = 0; i < count; i++) {
+            UserErrorEntry entry = entries.get(i);
+            buffer = ensure(buffer, 4);
+            buffer.putInt(entry.lineCount());
+            for (int j = 0; j < entry.lineCount(); j++) {
+                buffer = putString(buffer, entry.line(j).toString());
+            }
+        }
+        return buffer;
+    }
+
+    private static ByteBuffer putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer = ensure(buffer, 4);
+            buffer.putInt(-1);
+            return buffer;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer = ensure(buffer, 4 + bytes.length);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+        return buffer;
+    }
+
+    private static ByteBuffer ensure(ByteBuffer buffer, int needed) {
+        if (buffer.remaining() >= needed) return buffer;
+
+        ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + needed));
+        ((Buffer) buffer).flip();
+        grown.put(buffer);
+        BUFFER.replace(grown);
+        return grown;
+    }
+
+    private static Entry readEntry(ByteBuffer record) {
+        long timestamp = record.getLong();
+        String thread = getString(record);
+        UserError error = UserError.from(getString(record));
+        int reasons = record.getInt();
+        for (int i = 0; i < reasons; i++) {
+            error.addReason(getEntry(record));
+        }
+        int help = record.getInt();
+        for (int i = 0; i < help; i++) {
+            error.addHelp(getEntry(record));
+        }
+        return new Entry(timestamp, thread, error);
+    }
+
+    private static UserErrorEntry getEntry(ByteBuffer record) {
+        int count = record.getInt();
+        UserErrorEntry entry = new UserErrorEntry();
+        for (int i = 0; i < count; i++) {
+            entry.addLine(getString(record));
+        }
+        return entry;
+    }
+
+    private static String getString(ByteBuffer record) {
+        int length = record.getInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void checkHeader(ByteBuffer buffer, Path path) throws IOException {
+        if (buffer.limit() < HEADER_SIZE || buffer.getLong(0) != MAGIC || buffer.getInt(8) != VERSION) {
+            throw new IOException(path + " is not a crash journal");
+        }
+    }
+
+    /**
+     * Find the end of the last record, committed or not, so new records never overwrite one
+     * */
+    private static int findEnd(ByteBuffer buffer) {
+        int offset = HEADER_SIZE;
+        int end = HEADER_SIZE;
+        while (offset + RECORD_HEADER_SIZE <= buffer.limit()) {
+            int length = buffer.getInt(offset);
+            if (!fits(buffer, offset, length)) {
+                offset = findNextCommitted(buffer, offset);
+                if (offset == -1) break;
+                continue;
+            }
+            offset += align(RECORD_HEADER_SIZE + length);
+            end = offset;
+        }
+        return end;
+    }
+
+    /**
+     * Find the next committed record after a slot whose length was never written
+     *
+     * @return The offset of the record, or -1 if there is none
+     * */
+    private static int findNextCommitted(ByteBuffer buffer, int offset) {
+        for (int next = offset + ALIGNMENT; next + RECORD_HEADER_SIZE <= buffer.limit(); next += ALIGNMENT) {
+            if (fits(buffer, next, buffer.getInt(next)) && buffer.getInt(next + 4) == COMMITTED) return next;
+        }
+        return -1;
+    }
+
+    private static boolean fits(ByteBuffer buffer, int offset, int length) {
+        return length > 0 && length <= buffer.limit() - offset - RECORD_HEADER_SIZE;
+    }
+
+    private static int align(int size) {
+        return (size + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+
+    /**
+     * A record read back from a journal
+     * */
+    public static final class Entry {
+
+        private final long timestamp;
+        private final String thread;
+        private final UserError error;
+
+        private Entry(long timestamp, String thread, UserError error) {
+            this.timestamp = timestamp;
+            this.thread = thread;
+            this.error = error;
+        }
+
+        public long timestamp() {
+            return timestamp;
+        }
+
+        public String thread() {
+            return thread;
+        }
+
+        public UserError error() {
+            return error;
+        }
+
+        /**
+         * Print the record in the UserError layout, prefixed with its time and thread
+         *
+         * @param printer The Printer to print to
+         * */
+        public void printAll(Printer<?> printer) {
+            String time = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ").format(new Date(this.timestamp));
+            this.error.printAll(printer, String.format("[%s] [Thread %s] ", time, this.thread));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package me.ikevoodoo.juerr;
+
+import me.ikevoodoo.juerr.traces.StackTraceError;
+
+import java.util.List;
+
+/**
+ * A UserError that only holds its throwable until the reasons or help are needed
+ * <p>
+ * The stack trace is analysed on the first call to {@link UserError#reasons()}, {@link UserError#help()},
+ * when adding to either or when printing, the result is kept afterwards.
+ *
+ * @see UserError#deferred(Throwable)
+ * */
+final class DeferredUserError extends UserError {
+
+    private final Throwable throwable;
+    private volatile boolean analyzed;
+    private boolean analyzing;
+
+    DeferredUserError(Throwable throwable) {
+        super(throwable.getLocalizedMessage());
+        this.throwable = throwable;
+    }
+
+    @Override
+    public UserError addHelp(UserErrorEntry help) {
+        this.analyze();
+        return super.addHelp(help);
+    }
+
+    @Override
+    public UserError addReason(UserErrorEntry reason) {
+        this.analyze();
+        return super.addReason(reason);
+    }
+
+    @Override
+    public List<UserErrorEntry> reasons() {
+        this.analyze();
+        return super.reasons();
+    }
+
+    @Override
+    public List<UserErrorEntry> help() {
+        this.analyze();
+        return super.help();
+    }
+
+    private void analyze() {
+        if (this.analyzed) return;
+
+        synchronized (this) {
+            // The analysis adds to this error itself, skip while it runs
+            if (this.analyzed || this.analyzing) return;
+            this.analyzing = true;
+            try {
+                new StackTraceError(this).apply(this.throwable);
+            } finally {
+                this.analyzed = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package me.ikevoodoo.juerr;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Writes errors to stderr when the JVM is out of resources, like after an OutOfMemoryError
+ * <p>
+ * Everything it needs is reserved up front: a byte buffer, the stream on the stderr file descriptor
+ * and some heap headroom that is released while an error is written and reserved again afterwards, if possible. Errors are encoded into the
+ * buffer by hand, without String.format, reflection or stack trace analysis.
+ * Characters outside ASCII are written as '?'.
+ * */
+final class EmergencyWriter {
+
+    // Native writes of up to 8 KiB do not allocate
+    private static final int BUFFER_SIZE = 8192;
+    private static final int HEADROOM_SIZE = 256 * 1024;
+    private static final int MAX_FRAMES = 256;
+    private static final Object LOCK = new Object();
+
+    private static volatile boolean reserved;
+    private static byte[] buffer;
+    private static int position;
+    private static FileOutputStream out;
+    @SuppressWarnings({"FieldCanBeLocal", "unused"})
+    private static byte[] headroom;
+
+    private EmergencyWriter() {
+
+    }
+
+    /**
+     * Reserve what is needed to write errors later, does nothing if already reserved
+     * */
+    static void reserve() {
+        if (reserved) return;
+        synchronized (LOCK) {
+            if (reserved) return;
+            buffer = new byte[BUFFER_SIZE];
+            headroom = new byte[HEADROOM_SIZE];
+            out = new FileOutputStream(FileDescriptor.err);
+            // Class names are created lazily, create them while there still is memory
+            OutOfMemoryError.class.getName();
+            StackOverflowError.class.getName();
+            InternalError.class.getName();
+            UnknownError.class.getName();
+            reserved = true;
+        }
+    }
+
+    /**
+     * Write an error in the UserError layout
+     *
+     * @param thread The thread the error was thrown on
+     * @param throwable The error
+     * @return If the error was written, false if nothing was reserved
+     * */
+    static boolean write(Thread thread, Throwable throwable) {
+        if (!reserved) return false;
+
+        synchronized (LOCK) {
+            headroom = null;
+            position = 0;
+            try {
+                ascii("[Thread ");
+                String name = thread.getName();
+                if (name.isEmpty()) {
+                    ascii("#");
+                    number(thread.getId());
+                } else {
+                    ascii(name);
+                }
+                ascii("] Uncaught: ");
+                ascii(throwable.getClass().getName());
+                String message = throwable.getMessage();
+                if (message != null) {
+                    ascii(": ");
+                    ascii(message);
+                }
+                ascii("\n");
+                frames(throwable);
+                flush();
+            } catch (Throwable e) {
+                // Nothing left to report with
+            }
+
+            try {
+                headroom = new byte[HEADROOM_SIZE];
+            } catch (OutOfMemoryError e) {
+                // Still no memory, the next error is written without headroom
+            }
+        }
+        return true;
+    }
+
+    private static void frames(Throwable throwable) throws IOException {
+        StackTraceElement[] trace;
+        try {
+            trace = throwable.getStackTrace();
+        } catch (OutOfMemoryError e) {
+            ascii(" - caused by: (stack trace unavailable)\n");
+            return;
+        }
+
+        int written = 0;
+        int i = 0;
+        while (i < trace.length && written < MAX_FRAMES) {
+            ascii(written == 0 ? " - caused by: " : "     |        ");
+            frame(trace[i]);
+            ascii("\n");
+            written++;
+
+            // Fold direct recursion, the common shape of a StackOverflowError
+            int end = i + 1;
+            while (end < trace.length && trace[end].equals(trace[i])) end++;
+            if (end - i > 2) {
+                ascii("     |        [frames ");
+                number(i);
+                ascii("..");
+                number(i);
+                ascii(" repeated ");
+                number(end - i);
+                ascii(" times]\n");
+                written++;
+                i = end;
+            } else {
+                i++;
+            }
+        }
+        if (i < trace.length) {
+            ascii("     |        ... ");
+            number(trace.length - i);
+            ascii(" more\n");
+        }
+    }
+
+    private static void frame(StackTraceElement element) throws IOException {
+        String className = element.getClassName();
+        for (int i = className.lastIndexOf('.') + 1; i < className.length(); i++) {
+            char c = className.charAt(i);
+            put(c == '$' ? '.' : c);
+        }
+        put('.');
+        ascii(element.getMethodName());
+        put('(');
+        String file = element.getFileName();
+        ascii(file == null ? "null" : file);
+        put(':');
+        number(element.getLineNumber());
+        put(')');
+    }
+
+    private static void number(long value) throws IOException {
+        if (value < 0) {
+            put('-');
+            value = -value;
+        }
+        long divisor = 1;
+        while (value / divisor >= 10) divisor *= 10;
+        for (; divisor > 0; divisor /= 10) {
+            put((char) ('0' + (value / divisor) % 10));
+        }
+    }
+
+    private static void ascii(String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            put(text.charAt(i));
+        }
+    }
+
+    private static void put(char c) throws IOException {
+        if (position == BUFFER_SIZE) flush();
+        buffer[position++] = (byte) (c < 0x80 ? c : '?');
+    }
+
+    private static void flush() throws IOException {
+        out.write(buffer, 0, position);
+        position = 0;
+    }
+}
@@ -0,0 +1,135 @@
+package me.ikevoodoo.juerr;
+
+import me.ikevoodoo.juerr.metrics.ErrorMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects errors from many threads and prints them in batches
+ * <p>
+ * Reporting an error only puts it on a queue, the stack trace is analysed when the batch is printed.
+ * A batch is printed once per interval, or as soon as it holds the batch size, with a single
+ * {@link Printer#printErrors(java.util.List, java.util.List)} call on the reporter's own thread.
+ * Errors reported after the reporter was closed are printed right away on the reporting thread.
+ *
+ * @see ReportingExecutors
+ * */
+public class ErrorReporter implements AutoCloseable {
+
+    private final Printer<?> printer;
+    private final int batchSize;
+    private final ConcurrentLinkedQueue<Report> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Create a new ErrorReporter and start its thread
+     *
+     * @param printer The Printer to print to
+     * @param interval The time between two batches
+     * @param unit The unit of the interval
+     * @param batchSize The amount of errors that are printed right away, without waiting for the interval
+     * */
+    public ErrorReporter(Printer<?> printer, long interval, TimeUnit unit, int batchSize) {
+        if (batchSize < 1) throw new IllegalArgumentException("batchSize must be positive");
+
+        this.printer = printer;
+        this.batchSize = batchSize;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "juerr-error-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.scheduleWithFixedDelay(this::flush, interval, interval, unit);
+    }
+
+    /**
+     * Report an error, prefixed with the name of the current thread
+     *
+     * @param throwable The error
+     * */
+    public void report(Throwable throwable) {
+        this.report(throwable, prefix(Thread.currentThread()));
+    }
+
+    static String prefix(Thread thread) {
+        return String.format("[Thread %s] Task failed: ", thread.getName());
+    }
+
+    public void report(Throwable throwable, String prefix) {
+        this.report(UserError.deferred(throwable), prefix);
+    }
+
+    public void report(UserError error, String prefix) {
+        this.queue.add(new Report(error, prefix));
+        int size = this.size.incrementAndGet();
+        if (this.scheduler.isShutdown()) {
+            // Closed, nothing would flush it later
+            this.flush();
+        } else if (size >= this.batchSize && this.flushScheduled.compareAndSet(false, true)) {
+            try {
+                this.scheduler.execute(this::flush);
+            } catch (RuntimeException e) {
+                // Closed, print on the reporting thread
+                this.flush();
+            }
+        }
+    }
+
+    /**
+     * Print all queued errors
+     * */
+    public synchronized void flush() {
+        this.flushScheduled.set(false);
+        if (this.queue.isEmpty()) return;
+
+        List<UserError> errors = new ArrayList<>();
+        List<String> prefixes = new ArrayList<>();
+        Report report;
+        while ((report = this.queue.poll()) != null) {
+            this.size.decrementAndGet();
+            errors.add(report.error);
+            prefixes.add(report.prefix);
+        }
+
+        long start = ErrorMetrics.start();
+        try {
+            this.printer.printErrors(errors, prefixes);
+        } catch (RuntimeException e) {
+            // A failing Printer must not stop the reporter
+        }
+        ErrorMetrics.recordRendering(start);
+    }
+
+    /**
+     * Stop the reporter thread and print all queued errors
+     * */
+    @Override
+    public void close() {
+        this.scheduler.shutdown();
+        try {
+            this.scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.flush();
+    }
+
+    private static final class Report {
+        private final UserError error;
+        private final String prefix;
+
+        private Report(UserError error, String prefix) {
+            this.error = error;
+            this.prefix = prefix;
+        }
+    }
+}
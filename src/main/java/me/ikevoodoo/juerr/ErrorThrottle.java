@@ -0,0 +1,217 @@
+package me.ikevoodoo.juerr;
+
+import me.ikevoodoo.juerr.traces.StackTraceHelper;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prints each distinct error at most once per time window
+ * <p>
+ * Errors are fingerprinted by their class and their top stack frames. Repeats inside the
+ * window are only counted, without generating or rendering a UserError. The count is
+ * printed as a "suppressed N occurrences" summary once the window is over.
+ *
+ * @see UserError#fromStacktrace(Throwable)
+ * */
+public class ErrorThrottle {
+
+    private static final int DEFAULT_FRAMES = 8;
+    private static final int DEFAULT_MAX_FINGERPRINTS = 4096;
+
+    private final long windowNanos;
+    private final int frames;
+    private final int maxFingerprints;
+    private final ConcurrentHashMap<Long, Window> windows = new ConcurrentHashMap<>();
+
+    /**
+     * Create a new ErrorThrottle using the top 8 frames of every error
+     *
+     * @param window The length of the window
+     * @param unit The unit of the window
+     * */
+    public ErrorThrottle(long window, TimeUnit unit) {
+        this(window, unit, DEFAULT_FRAMES, DEFAULT_MAX_FINGERPRINTS);
+    }
+
+    /**
+     * Create a new ErrorThrottle
+     *
+     * @param window The length of the window
+     * @param unit The unit of the window
+     * @param frames The amount of top frames that make up the fingerprint
+     * @param maxFingerprints The amount of distinct errors tracked, errors past that are always printed
+     * */
+    public ErrorThrottle(long window, TimeUnit unit, int frames, int maxFingerprints) {
+        this.windowNanos = unit.toNanos(window);
+        this.frames = frames;
+        this.maxFingerprints = maxFingerprints;
+    }
+
+    /**
+     * Print the error unless it was already printed inside the current window
+     *
+     * @param throwable The error
+     * @param printer The Printer to print to
+     * @param prefix The message prefix
+     * @return If the error was printed
+     * */
+    public boolean printAll(Throwable throwable, Printer<?> printer, String prefix) {
+        long now = System.nanoTime();
+        StackTraceElement[] elements = throwable.getStackTrace();
+        long fingerprint = fingerprint(throwable, elements);
+
+        while (true) {
+            Window window = this.windows.get(fingerprint);
+            if (window == null) {
+                if (this.windows.size() >= this.maxFingerprints) {
+                    UserError.fromStacktrace(throwable).printAll(printer, prefix);
+                    return true;
+                }
+
+                Window created = new Window(throwable, elements, now);
+                window = this.windows.putIfAbsent(fingerprint, created);
+                if (window == null) {
+                    UserError.fromStacktrace(throwable).printAll(printer, prefix);
+                    return true;
+                }
+            }
+
+            if (window.isClosed()) {
+                // Being flushed away, start over with a new window
+                this.windows.remove(fingerprint, window);
+                continue;
+            }
+
+            long start = window.start.get();
+            if (now - start < this.windowNanos || !window.start.compareAndSet(start, now)) {
+                if (window.suppress()) return false;
+                continue;
+            }
+
+            window.printSummary(printer, prefix);
+            UserError.fromStacktrace(throwable).printAll(printer, prefix);
+            return true;
+        }
+    }
+
+    /**
+     * Print the summaries of all suppressed errors and forget errors whose window is over
+     *
+     * @param printer The Printer to print to
+     * @param prefix The message prefix
+     * */
+    public void flush(Printer<?> printer, String prefix) {
+        long now = System.nanoTime();
+        for (Map.Entry<Long, Window> entry : this.windows.entrySet()) {
+            Window window = entry.getValue();
+            if (now - window.start.get() >= this.windowNanos) {
+                // Closed before removal, so no occurrence can be counted into a removed window
+                long count = window.close();
+                this.windows.remove(entry.getKey(), window);
+                window.printSummary(count, printer, prefix);
+            } else {
+                window.printSummary(printer, prefix);
+            }
+        }
+    }
+
+    /**
+     * Periodically print the summaries of suppressed errors
+     *
+     * @param executor The executor to schedule on
+     * @param printer The Printer to print to
+     * @param prefix The message prefix
+     * @return The scheduled task, cancel it to stop
+     * */
+    public ScheduledFuture<?> schedule(ScheduledExecutorService executor, Printer<?> printer, String prefix) {
+        return executor.scheduleAtFixedRate(() -> flush(printer, prefix), this.windowNanos, this.windowNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Hash the class of the error and its top frames
+     * */
+    private long fingerprint(Throwable throwable, StackTraceElement[] elements) {
+        long hash = mix(0xcbf29ce484222325L, throwable.getClass().getName().hashCode());
+        int count = Math.min(this.frames, elements.length);
+        for (int i = 0; i < count; i++) {
+            StackTraceElement element = elements[i];
+            hash = mix(hash, element.getClassName().hashCode());
+            hash = mix(hash, element.getMethodName().hashCode());
+            hash = mix(hash, element.getLineNumber());
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, int value) {
+        hash ^= value;
+        hash *= 0x100000001b3L;
+        return hash ^ (hash >>> 29);
+    }
+
+    private static final class Window {
+        private static final long CLOSED = -1;
+
+        private final String name;
+        private final String message;
+        private final StackTraceElement frame;
+        private final AtomicLong start;
+        private final AtomicLong suppressed = new AtomicLong();
+
+        private Window(Throwable throwable, StackTraceElement[] elements, long start) {
+            this.name = throwable.getClass().getName();
+            this.message = throwable.getLocalizedMessage();
+            this.frame = elements.length == 0 ? null : elements[0];
+            this.start = new AtomicLong(start);
+        }
+
+        /**
+         * Count an occurrence
+         *
+         * @return If it was counted, false if the window is closed
+         * */
+        private boolean suppress() {
+            while (true) {
+                long count = this.suppressed.get();
+                if (count == CLOSED) return false;
+                if (this.suppressed.compareAndSet(count, count + 1)) return true;
+            }
+        }
+
+        private boolean isClosed() {
+            return this.suppressed.get() == CLOSED;
+        }
+
+        /**
+         * Stop counting occurrences
+         *
+         * @return The occurrences counted since the last summary
+         * */
+        private long close() {
+            long count = this.suppressed.getAndSet(CLOSED);
+            return count == CLOSED ? 0 : count;
+        }
+
+        private void printSummary(Printer<?> printer, String prefix) {
+            long count;
+            do {
+                count = this.suppressed.get();
+                if (count <= 0) return;
+            } while (!this.suppressed.compareAndSet(count, 0));
+            printSummary(count, printer, prefix);
+        }
+
+        private void printSummary(long count, Printer<?> printer, String prefix) {
+            if (count <= 0) return;
+
+            UserError error = UserError.from(String.format("suppressed %s occurrences of %s", count, this.name));
+            if (this.message != null) error.addReason(this.message);
+            if (this.frame != null) error.addReason(StackTraceHelper.format(this.frame));
+            error.printAll(printer, prefix);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package me.ikevoodoo.juerr;
+
+import me.ikevoodoo.juerr.metrics.ErrorMetrics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * A Printer that writes every error as a single line of JSON (NDJSON)
+ * <p>
+ * Each UserErrorEntry becomes an array of its lines:
+ * <pre>
+ * {"prefix":"myFunction: ","message":"could not open file","reasons":[["The system cannot find the file specified."]],"help":[["Does this file exist?"]]}
+ * </pre>
+ * Plain text printed through {@link Printer#printf(String, Object...)} is written as a message only object.
+ * */
+public class JsonPrinter extends Printer<Appendable> {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final ThreadBuffer<StringBuilder> BUFFER = ThreadBuffer.builders(1024);
+
+    public JsonPrinter(Appendable out) {
+        super(out);
+    }
+
+    @Override
+    public void printf(String message, Object... args) {
+        print(String.format(message, args));
+    }
+
+    @Override
+    public void printfln(String message, Object... args) {
+        // Every object already is a line of its own
+        printf(message, args);
+    }
+
+    @Override
+    public void print(CharSequence text) {
+        StringBuilder builder = buffer();
+        builder.append("{\"message\":");
+        string(builder, text);
+        builder.append("}\n");
+        write(builder);
+    }
+
+    @Override
+    public void printError(UserError error, String prefix) {
+        StringBuilder builder = buffer();
+        object(builder, error, prefix);
+        write(builder);
+    }
+
+    @Override
+    public void printErrors(List<UserError> errors, List<String> prefixes) {
+        StringBuilder builder = buffer();
+        for (int i = 0; i < errors.size(); i++) {
+            object(builder, errors.get(i), prefixes.get(i));
+        }
+        write(builder);
+    }
+
+    private static void object(StringBuilder builder, UserError error, String prefix) {
+        builder.append('{');
+        if (prefix != null && !prefix.isEmpty()) {
+            builder.append("\"prefix\":");
+            string(builder, prefix);
+            builder.append(',');
+        }
+        builder.append("\"message\":");
+        string(builder, error.message());
+        builder.append(",\"reasons\":");
+        entries(builder, error.reasons());
+        builder.append(",\"help\":");
+        entries(builder, error.help());
+        builder.append("}\n");
+    }
+
+    private void write(StringBuilder builder) {
+        try {
+            getOut().append(builder);
+            ErrorMetrics.recordWritten(getClass(), builder.length());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            BUFFER.release(builder);
+        }
+    }
+
+    private static StringBuilder buffer() {
+        StringBuilder builder = BUFFER.get();
+        builder.setLength(0);
+        return builder;
+    }
+
+    private static void entries(StringBuilder builder, List<UserErrorEntry> entries) {
+        builder.append('[');
+        for (int i = 0; i < entries.size(); i++) {
+            if (i > 0) builder.append(',');
+            builder.append('[');
+            UserErrorEntry entry = entries.get(i);
+            for (int j = 0; j < entry.lineCount(); j++) {
+                if (j > 0) builder.append(',');
+                string(builder, entry.line(j));
+            }
+            builder.append(']');
+        }
+        builder.append(']');
+    }
+
+    private static void string(StringBuilder builder, CharSequence text) {
+        if (text == null) {
+            builder.append("null");
+            return;
+        }
+
+        builder.append('"');
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"': builder.append("\\\""); break;
+                case '\\': builder.append("\\\\"); break;
+                case '\n': builder.append("\\n"); break;
+                case '\r': builder.append("\\r"); break;
+                case '\t': builder.append("\\t"); break;
+                case '\b': builder.append("\\b"); break;
+                case '\f': builder.append("\\f"); break;
+                default:
+                    if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+                        builder.append("\\u")
+                                .append(HEX[(c >> 12) & 0xF])
+                                .append(HEX[(c >> 8) & 0xF])
+                                .append(HEX[(c >> 4) & 0xF])
+                                .append(HEX[c & 0xF]);
+                    } else {
+                        builder.append(c);
+                    }
+            }
+        }
+        builder.append('"');
+    }
+}
@@ -0,0 +1,124 @@
+package me.ikevoodoo.juerr;
+
+import java.util.Arrays;
+
+/**
+ * A trie of package and class name prefixes
+ * <p>
+ * A prefix matches a name when the name starts with it and the prefix ends at a
+ * segment boundary, {@code com.acme} matches {@code com.acme.Main} and {@code com.acme.Main$Inner}
+ * but not {@code com.acmecorp.Main}. Matching walks the name once and allocates nothing.
+ *
+ * @param <V> The value stored for every prefix
+ * */
+public class PrefixTrie<V> {
+
+    private final Node<V> root = new Node<>();
+    private int size;
+
+    /**
+     * Add a prefix, a trailing '.' is ignored
+     *
+     * @param prefix The package or class name prefix
+     * @param value The value returned when the prefix matches
+     * @return The current PrefixTrie
+     * */
+    public PrefixTrie<V> put(String prefix, V value) {
+        int length = prefix.endsWith(".") ? prefix.length() - 1 : prefix.length();
+        Node<V> node = this.root;
+        for (int i = 0; i < length; i++) {
+            node = node.childOrCreate(prefix.charAt(i));
+        }
+        if (node.value == null) this.size++;
+        node.value = value;
+        return this;
+    }
+
+    /**
+     * Add all prefixes of another trie
+     *
+     * @param other The trie to copy from
+     * @return The current PrefixTrie
+     * */
+    public PrefixTrie<V> putAll(PrefixTrie<V> other) {
+        copy(other.root, new StringBuilder());
+        return this;
+    }
+
+    /**
+     * Find the value of the longest prefix matching the name
+     *
+     * @param name The fully qualified name
+     * @return The value, or null if no prefix matches
+     * */
+    public V match(CharSequence name) {
+        V matched = this.root.value;
+        Node<V> node = this.root;
+        int length = name.length();
+        for (int i = 0; i < length; i++) {
+            node = node.child(name.charAt(i));
+            if (node == null) break;
+            if (node.value != null && (i + 1 == length || isBoundary(name.charAt(i + 1)))) {
+                matched = node.value;
+            }
+        }
+        return matched;
+    }
+
+    public boolean matches(CharSequence name) {
+        return match(name) != null;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    private void copy(Node<V> node, StringBuilder prefix) {
+        if (node.value != null) put(prefix.toString(), node.value);
+        for (int i = 0; i < node.count; i++) {
+            prefix.append(node.keys[i]);
+            copy(node.children[i], prefix);
+            prefix.setLength(prefix.length() - 1);
+        }
+    }
+
+    private static boolean isBoundary(char c) {
+        return c == '.' || c == '$';
+    }
+
+    private static final class Node<V> {
+        private char[] keys = new char[0];
+        @SuppressWarnings("unchecked")
+        private Node<V>[] children = (Node<V>[]) new Node<?>[0];
+        private int count;
+        private V value;
+
+        private Node<V> child(char key) {
+            char[] keys = this.keys;
+            for (int i = 0; i < this.count; i++) {
+                if (keys[i] == key) return this.children[i];
+            }
+            return null;
+        }
+
+        private Node<V> childOrCreate(char key) {
+            Node<V> child = child(key);
+            if (child != null) return child;
+
+            if (this.count == this.keys.length) {
+                int capacity = Math.max(2, this.count * 2);
+                this.keys = Arrays.copyOf(this.keys, capacity);
+                this.children = Arrays.copyOf(this.children, capacity);
+            }
+            child = new Node<>();
+            this.keys[this.count] = key;
+            this.children[this.count] = child;
+            this.count++;
+            return child;
+        }
+    }
+}
@@ -1,10 +1,11 @@
 package me.ikevoodoo.juerr;
 
 import java.io.PrintStream;
+import java.util.List;
 
 public class PrintStreamPrinter extends Printer<PrintStream> {
 
-    protected PrintStreamPrinter(PrintStream out) {
+    public PrintStreamPrinter(PrintStream out) {
         super(out);
     }
 
@@ -12,4 +13,14 @@ public class PrintStreamPrinter extends Printer<PrintStream> {
     public void printf(String message, Object... args) {
         getOut().printf(message, args);
     }
-}
\ No newline at end of file
+
+    @Override
+    public void print(CharSequence text) {
+        getOut().append(text);
+    }
+
+    @Override
+    public void printErrors(List<UserError> errors, List<String> prefixes) {
+        UserError.printText(this, errors, prefixes);
+    }
+}
@@ -1,5 +1,7 @@
 package me.ikevoodoo.juerr;
 
+import java.util.List;
+
 public abstract class Printer<T> {
 
     private final T out;
@@ -17,4 +19,64 @@ public abstract class Printer<T> {
     public void printfln(String message, Object... args) {
         printf(message + '\n', args);
     }
-}
\ No newline at end of file
+
+    /**
+     * Print already rendered text as is
+     * <p>
+     * Falls back to {@link Printer#printf(String, Object...)}, override to skip format parsing.
+     * The text may be a reused buffer, don't keep it after the call returns, copy it with toString instead.
+     *
+     * @param text The text to print
+     * */
+    public void print(CharSequence text) {
+        printf("%s", text);
+    }
+
+    /**
+     * Print a UserError
+     * <p>
+     * Renders the error in the human readable layout by default, override to print it differently.
+     *
+     * @param error The error to print
+     * @param prefix The message prefix
+     * */
+    public void printError(UserError error, String prefix) {
+        error.printText(this, prefix);
+    }
+
+    /**
+     * Print several UserErrors
+     * <p>
+     * Prints them one by one by default, Printers writing text write all of them at once.
+     *
+     * @param errors The errors to print
+     * @param prefixes The message prefix of every error
+     * */
+    public void printErrors(List<UserError> errors, List<String> prefixes) {
+        for (int i = 0; i < errors.size(); i++) {
+            printError(errors.get(i), prefixes.get(i));
+        }
+    }
+
+    /**
+     * Print text on behalf of another thread, like the writer thread of an {@link AsyncPrinter}
+     * <p>
+     * Printers recording where and when something was printed override it.
+     *
+     * @param text The text to print
+     * @param thread The name of the thread that printed it
+     * @param timestamp The time it was printed at, in milliseconds since the epoch
+     * */
+    void print(CharSequence text, String thread, long timestamp) {
+        print(text);
+    }
+
+    /**
+     * Print several UserErrors on behalf of another thread
+     *
+     * @see Printer#print(CharSequence, String, long)
+     * */
+    void printErrors(List<UserError> errors, List<String> prefixes, String thread, long timestamp) {
+        printErrors(errors, prefixes);
+    }
+}
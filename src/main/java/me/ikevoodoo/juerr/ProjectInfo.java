@@ -1,75 +1,319 @@
 package me.ikevoodoo.juerr;
 
+import me.ikevoodoo.juerr.index.ClassIndex;
+
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.file.*;
+import java.security.CodeSource;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.Enumeration;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+/**
+ * Keeps track of the classes that belong to a project
+ * <p>
+ * Class names are read from the {@link ClassIndex} written at compile time when there is one,
+ * the classpath is only walked without it. Loading only collects class names, the classes themselves are resolved (without being initialized)
+ * the first time they are needed. Safe to use from multiple threads.
+ * */
 public class ProjectInfo {
 
     private ProjectInfo() {
 
     }
 
-    private static final HashMap<Class<?>, List<Class<?>>> CLASSES = new HashMap<>();
+    private static final ConcurrentHashMap<Class<?>, Project> PROJECTS = new ConcurrentHashMap<>();
 
+    /**
+     * Load the project the class belongs to, every class in the class's package and its sub packages
+     * <p>
+     * All classpath roots containing the package are scanned in parallel.
+     *
+     * @param clazz The class to load the project of
+     * */
     public static void load(Class<?> clazz) throws URISyntaxException, IOException {
-        if (isLoaded(clazz)) return;
+        Project project = PROJECTS.computeIfAbsent(clazz, key -> new Project());
+        if (project.classes != null) return;
+
+        synchronized (project) {
+            if (project.classes != null) return;
+            try {
+                project.classes = new ProjectClasses(getClassLoader(clazz), scan(clazz));
+            } catch (URISyntaxException | IOException | RuntimeException e) {
+                // Don't leave an empty project behind that makes the class look loaded
+                if (project.prefixes.isEmpty()) {
+                    PROJECTS.remove(clazz, project);
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Register a project root, every class matching one of the prefixes belongs to the project
+     * <p>
+     * No classes are scanned or resolved, may be combined with {@link ProjectInfo#load(Class)}.
+     * Each root has its own prefixes, register as many roots as needed.
+     *
+     * @param clazz The class identifying the project
+     * @param prefixes Package or class name prefixes, for example {@code com.acme.billing}
+     * */
+    public static void register(Class<?> clazz, String... prefixes) {
+        Project project;
+        do {
+            project = PROJECTS.computeIfAbsent(clazz, key -> new Project());
+            project.addPrefixes(prefixes);
+            // A failed load may have removed the project in the meantime
+        } while (PROJECTS.get(clazz) != project);
+    }
+
+    /**
+     * Forget a loaded or registered project, a later load scans it again
+     *
+     * @param clazz The class the project was loaded or registered with
+     * */
+    public static void unload(Class<?> clazz) {
+        PROJECTS.remove(clazz);
+    }
+
+    /**
+     * Get the scanned classes of a project
+     *
+     * @param clazz The class the project was loaded with
+     * @return The classes, empty if the project was only registered with prefixes, or null if it is unknown
+     * */
+    public static List<Class<?>> getClasses(Class<?> clazz) {
+        Project project = PROJECTS.get(clazz);
+        if (project == null) return null;
+        ProjectClasses classes = project.classes;
+        return classes == null ? Collections.emptyList() : classes.get();
+    }
+
+    /**
+     * Check if a project was loaded or registered with prefixes
+     *
+     * @param clazz The class the project was loaded or registered with
+     * @return If the project has scanned classes or prefixes
+     * */
+    public static boolean isLoaded(Class<?> clazz) {
+        Project project = PROJECTS.get(clazz);
+        return project != null && (project.classes != null || !project.prefixes.isEmpty());
+    }
+
+    /**
+     * Check if a class belongs to a project without resolving it
+     *
+     * @param clazz The class the project was loaded or registered with
+     * @param className The fully qualified binary name of the class to check
+     * @return If the class belongs to the project
+     * */
+    public static boolean isProjectClass(Class<?> clazz, String className) {
+        Project project = PROJECTS.get(clazz);
+        return project != null && project.contains(className);
+    }
+
+    public static boolean isProjectClass(Class<?> clazz, Class<?> other) {
+        return other != null && isProjectClass(clazz, other.getName());
+    }
 
+    private static List<String> scan(Class<?> clazz) throws URISyntaxException, IOException {
         Package pack = clazz.getPackage();
-        if (pack == null) {
-            List<Class<?>> classes = new ArrayList<>();
-            classes.add(clazz);
-            CLASSES.put(clazz, classes);
-            return;
+        if (pack == null || pack.getName().isEmpty()) {
+            return scanUnnamed(clazz);
         }
 
         String packageName = pack.getName();
+        List<String> indexed = readIndex(clazz, packageName);
+        if (indexed != null) return indexed;
 
         String packagePath = packageName.replace('.', '/');
-        URL resource = clazz.getClassLoader().getResource(packagePath);
-        if (resource == null) return;
-        URI pkg = resource.toURI();
-        List<Class<?>> classes = new ArrayList<>();
+        List<URI> roots = new ArrayList<>();
+        Enumeration<URL> resources = getClassLoader(clazz).getResources(packagePath);
+        while (resources.hasMoreElements()) {
+            roots.add(resources.nextElement().toURI());
+        }
 
-        Path root;
-        if(pkg.getScheme().equals("jar")) {
-            try {
-                root = FileSystems.getFileSystem(pkg).getPath(packagePath);
-            } catch (final FileSystemNotFoundException e) {
-                root = FileSystems.newFileSystem(pkg, Collections.emptyMap()).getPath(packagePath);
-            }
-        } else {
-            root = Paths.get(pkg);
+        return scan(roots, packagePath, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Read the project's classes from the index written at compile time
+     *
+     * @return The class names, or null if there is no index
+     * @see ClassIndex
+     * */
+    private static List<String> readIndex(Class<?> clazz, String packageName) throws IOException {
+        Enumeration<URL> indexes = getClassLoader(clazz).getResources(ClassIndex.LOCATION);
+        if (!indexes.hasMoreElements()) return null;
+
+        List<String> names = new ArrayList<>();
+        while (indexes.hasMoreElements()) {
+            names.addAll(ClassIndex.read(indexes.nextElement().openStream(), packageName));
+        }
+        return names.isEmpty() ? null : names;
+    }
+
+    /**
+     * Classes in the unnamed package can only be found next to the class itself
+     * */
+    private static List<String> scanUnnamed(Class<?> clazz) throws URISyntaxException, IOException {
+        List<String> indexed = readIndex(clazz, "");
+        if (indexed != null) {
+            indexed.removeIf(name -> name.indexOf('.') != -1);
+            if (!indexed.isEmpty()) return indexed;
+        }
+
+        CodeSource source = clazz.getProtectionDomain().getCodeSource();
+        if (source == null || source.getLocation() == null) {
+            return Collections.singletonList(clazz.getName());
+        }
+
+        URI location = source.getLocation().toURI();
+        if (location.getPath() != null && location.getPath().endsWith(".jar")) {
+            location = URI.create("jar:" + location + "!/");
+        }
+        return scan(Collections.singletonList(location), "", 1);
+    }
+
+    private static List<String> scan(List<URI> roots, String packagePath, int depth) throws IOException {
+        try {
+            return roots.parallelStream()
+                    .flatMap(uri -> walk(uri, packagePath, depth))
+                    .distinct()
+                    .collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
+    }
+
+    private static Stream<String> walk(URI uri, String packagePath, int depth) {
+        Path root = getRoot(uri, packagePath);
+        String separator = root.getFileSystem().getSeparator();
+        String prefix = packagePath.isEmpty() ? "" : packagePath.replace('/', '.') + '.';
 
-        try(Stream<Path> paths = Files.walk(root)) {
+        List<String> names = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(root, depth)) {
             paths.filter(Files::isRegularFile).forEach(file -> {
-                String path = file.toString().replace("/", ".");
-                String name = path.substring(path.indexOf(packageName), path.length() - 6);
-                try {
-                    classes.add(Class.forName(name));
-                } catch (ClassNotFoundException e) {
-                    e.printStackTrace();
+                String fileName = file.getFileName().toString();
+                if (!fileName.endsWith(".class") || fileName.equals("module-info.class") || fileName.equals("package-info.class")) {
+                    return;
                 }
+
+                String path = root.relativize(file).toString().replace(separator, ".");
+                names.add(prefix + path.substring(0, path.length() - 6));
             });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return names.stream();
+    }
+
+    private static Path getRoot(URI uri, String packagePath) {
+        if (!uri.getScheme().equals("jar")) {
+            return Paths.get(uri);
         }
 
-        CLASSES.put(clazz, classes);
+        String jar = uri.toString();
+        int separator = jar.indexOf("!/");
+        URI jarUri = URI.create(separator == -1 ? jar : jar.substring(0, separator + 2));
+        FileSystem fileSystem;
+        try {
+            fileSystem = FileSystems.getFileSystem(jarUri);
+        } catch (FileSystemNotFoundException e) {
+            try {
+                fileSystem = FileSystems.newFileSystem(jarUri, Collections.emptyMap());
+            } catch (FileSystemAlreadyExistsException ex) {
+                fileSystem = FileSystems.getFileSystem(jarUri);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+        return fileSystem.getPath("/" + packagePath);
     }
 
-    public static List<Class<?>> getClasses(Class<?> clazz) {
-        return CLASSES.get(clazz);
+    private static ClassLoader getClassLoader(Class<?> clazz) {
+        ClassLoader loader = clazz.getClassLoader();
+        return loader == null ? ClassLoader.getSystemClassLoader() : loader;
     }
 
-    public static boolean isLoaded(Class<?> clazz) {
-        return !CLASSES.isEmpty() && CLASSES.containsKey(clazz);
+    private static final class Project {
+
+        private volatile ProjectClasses classes;
+        private volatile PrefixTrie<Boolean> prefixes = new PrefixTrie<>();
+
+        private synchronized void addPrefixes(String... prefixes) {
+            PrefixTrie<Boolean> trie = new PrefixTrie<Boolean>().putAll(this.prefixes);
+            for (String prefix : prefixes) {
+                trie.put(prefix, Boolean.TRUE);
+            }
+            this.prefixes = trie;
+        }
+
+        private boolean contains(String className) {
+            ProjectClasses classes = this.classes;
+            return (classes != null && classes.contains(className)) || this.prefixes.matches(className);
+        }
+    }
+
+    /**
+     * The scanned class names of a project, resolved into classes on first use
+     * */
+    private static final class ProjectClasses {
+
+        private final ClassLoader loader;
+        private final List<String> names;
+        private final Set<String> nameSet;
+        private volatile List<Class<?>> classes;
+
+        private ProjectClasses(ClassLoader loader, List<String> names) {
+            this.loader = loader;
+            this.names = names;
+            this.nameSet = new HashSet<>(names);
+        }
+
+        private boolean contains(String className) {
+            if (this.nameSet.contains(className)) return true;
+
+            // Local and anonymous classes are not part of the class index
+            int nested = className.lastIndexOf('$');
+            return nested != -1 && this.nameSet.contains(className.substring(0, nested));
+        }
+
+        private List<Class<?>> get() {
+            List<Class<?>> resolved = this.classes;
+            if (resolved == null) {
+                synchronized (this) {
+                    resolved = this.classes;
+                    if (resolved == null) {
+                        resolved = Collections.unmodifiableList(resolve());
+                        this.classes = resolved;
+                    }
+                }
+            }
+            return resolved;
+        }
+
+        private List<Class<?>> resolve() {
+            List<Class<?>> resolved = new ArrayList<>(this.names.size());
+            for (String name : this.names) {
+                try {
+                    resolved.add(Class.forName(name, false, this.loader));
+                } catch (ClassNotFoundException | LinkageError e) {
+                    // Not loadable from this loader, it can't show up in a stack trace either
+                }
+            }
+            return resolved;
+        }
     }
 
 }
@@ -0,0 +1,171 @@
+package me.ikevoodoo.juerr;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * An ExecutorService reporting the failures of its tasks to an ErrorReporter
+ * <p>
+ * Failures are still thrown after being reported, futures complete the same way they would without it.
+ * Tasks passed to {@link #execute(Runnable)} are the exception, their failures are only reported,
+ * the thread's uncaught exception handler would print them a second time. Failed attempts of
+ * {@code invokeAny} are only reported when no attempt succeeded.
+ * */
+class ReportingExecutorService implements ExecutorService {
+
+    private final ExecutorService delegate;
+    protected final ErrorReporter reporter;
+
+    ReportingExecutorService(ExecutorService delegate, ErrorReporter reporter) {
+        this.delegate = delegate;
+        this.reporter = reporter;
+    }
+
+    Runnable wrap(Runnable task) {
+        return () -> {
+            try {
+                task.run();
+            } catch (Throwable throwable) {
+                this.reporter.report(throwable);
+                throw throwable;
+            }
+        };
+    }
+
+    private Runnable wrapExecuted(Runnable task) {
+        return () -> {
+            try {
+                task.run();
+            } catch (VirtualMachineError error) {
+                // Left to the thread's handler, reporting needs memory there may not be
+                throw error;
+            } catch (Throwable throwable) {
+                this.reporter.report(throwable);
+            }
+        };
+    }
+
+    <T> Callable<T> wrap(Callable<T> task) {
+        return () -> {
+            try {
+                return task.call();
+            } catch (Throwable throwable) {
+                this.reporter.report(throwable);
+                throw throwable;
+            }
+        };
+    }
+
+    /**
+     * Wrap tasks so their failures are collected instead of reported
+     * */
+    private <T> List<Callable<T>> collectAll(Collection<? extends Callable<T>> tasks, Queue<Runnable> failures) {
+        List<Callable<T>> wrapped = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            wrapped.add(() -> {
+                try {
+                    return task.call();
+                } catch (Throwable throwable) {
+                    String prefix = ErrorReporter.prefix(Thread.currentThread());
+                    failures.add(() -> this.reporter.report(throwable, prefix));
+                    throw throwable;
+                }
+            });
+        }
+        return wrapped;
+    }
+
+    private <T> List<Callable<T>> wrapAll(Collection<? extends Callable<T>> tasks) {
+        List<Callable<T>> wrapped = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            wrapped.add(this.wrap(task));
+        }
+        return wrapped;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        this.delegate.execute(this.wrapExecuted(command));
+    }
+
+    @Override
+    public Future<?> submit(Runnable task) {
+        return this.delegate.submit(this.wrap(task));
+    }
+
+    @Override
+    public <T> Future<T> submit(Runnable task, T result) {
+        return this.delegate.submit(this.wrap(task), result);
+    }
+
+    @Override
+    public <T> Future<T> submit(Callable<T> task) {
+        return this.delegate.submit(this.wrap(task));
+    }
+
+    @Override
+    public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks) throws InterruptedException {
+        return this.delegate.invokeAll(this.wrapAll(tasks));
+    }
+
+    @Override
+    public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit) throws InterruptedException {
+        return this.delegate.invokeAll(this.wrapAll(tasks), timeout, unit);
+    }
+
+    @Override
+    public <T> T invokeAny(Collection<? extends Callable<T>> tasks) throws InterruptedException, ExecutionException {
+        Queue<Runnable> failures = new ConcurrentLinkedQueue<>();
+        try {
+            return this.delegate.invokeAny(this.collectAll(tasks, failures));
+        } catch (ExecutionException e) {
+            failures.forEach(Runnable::run);
+            throw e;
+        }
+    }
+
+    @Override
+    public <T> T invokeAny(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        Queue<Runnable> failures = new ConcurrentLinkedQueue<>();
+        try {
+            return this.delegate.invokeAny(this.collectAll(tasks, failures), timeout, unit);
+        } catch (ExecutionException | TimeoutException e) {
+            failures.forEach(Runnable::run);
+            throw e;
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        this.delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return this.delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return this.delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return this.delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return this.delegate.awaitTermination(timeout, unit);
+    }
+}
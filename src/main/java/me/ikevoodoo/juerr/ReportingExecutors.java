@@ -0,0 +1,44 @@
+package me.ikevoodoo.juerr;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Decorators reporting the failures of asynchronous tasks to an {@link ErrorReporter}
+ * <p>
+ * Without them failures are kept inside futures and never reach the uncaught exception handler.
+ * Failures are reported and still thrown, so code waiting on the tasks sees them unchanged.
+ * */
+public class ReportingExecutors {
+
+    private ReportingExecutors() {
+
+    }
+
+    public static ExecutorService decorate(ExecutorService executor, ErrorReporter reporter) {
+        return new ReportingExecutorService(executor, reporter);
+    }
+
+    public static ScheduledExecutorService decorate(ScheduledExecutorService executor, ErrorReporter reporter) {
+        return new ReportingScheduledExecutorService(executor, reporter);
+    }
+
+    /**
+     * Report the failure of a CompletableFuture stage
+     *
+     * @param future The stage
+     * @param reporter The ErrorReporter to report to
+     * @return A stage completing the same way as the given one
+     * */
+    public static <T> CompletableFuture<T> report(CompletableFuture<T> future, ErrorReporter reporter) {
+        return future.whenComplete((result, throwable) -> {
+            if (throwable == null) return;
+            if (throwable instanceof CompletionException && throwable.getCause() != null) {
+                throwable = throwable.getCause();
+            }
+            reporter.report(throwable);
+        });
+    }
+}
@@ -0,0 +1,39 @@
+package me.ikevoodoo.juerr;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A ScheduledExecutorService reporting the failures of its tasks to an ErrorReporter
+ * */
+class ReportingScheduledExecutorService extends ReportingExecutorService implements ScheduledExecutorService {
+
+    private final ScheduledExecutorService delegate;
+
+    ReportingScheduledExecutorService(ScheduledExecutorService delegate, ErrorReporter reporter) {
+        super(delegate, reporter);
+        this.delegate = delegate;
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        return this.delegate.schedule(this.wrap(command), delay, unit);
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        return this.delegate.schedule(this.wrap(callable), delay, unit);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        return this.delegate.scheduleAtFixedRate(this.wrap(command), initialDelay, period, unit);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+        return this.delegate.scheduleWithFixedDelay(this.wrap(command), initialDelay, delay, unit);
+    }
+}
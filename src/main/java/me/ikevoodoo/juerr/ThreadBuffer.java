@@ -0,0 +1,63 @@
+package me.ikevoodoo.juerr;
+
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * A buffer per thread, reused by every call on that thread
+ * <p>
+ * Internal use only. A buffer that grew past 64 KiB is dropped when it is released,
+ * one large error doesn't make its thread hold on to a large buffer.
+ *
+ * @param <T> The type of the buffer
+ * */
+public final class ThreadBuffer<T> {
+
+    private static final int MAX_RETAINED = 64 * 1024;
+
+    private final ThreadLocal<T> buffers;
+    private final ToIntFunction<T> capacity;
+
+    private ThreadBuffer(Supplier<T> factory, ToIntFunction<T> capacity) {
+        this.buffers = ThreadLocal.withInitial(factory);
+        this.capacity = capacity;
+    }
+
+    public static <T> ThreadBuffer<T> of(Supplier<T> factory, ToIntFunction<T> capacity) {
+        return new ThreadBuffer<>(factory, capacity);
+    }
+
+    /**
+     * Create a ThreadBuffer of StringBuilders
+     *
+     * @param initialCapacity The capacity of a new StringBuilder
+     * @return The ThreadBuffer
+     * */
+    public static ThreadBuffer<StringBuilder> builders(int initialCapacity) {
+        return new ThreadBuffer<>(() -> new StringBuilder(initialCapacity), StringBuilder::capacity);
+    }
+
+    public T get() {
+        return this.buffers.get();
+    }
+
+    /**
+     * Keep a grown copy of the buffer instead of the current one
+     *
+     * @param buffer The grown buffer
+     * */
+    public void replace(T buffer) {
+        this.buffers.set(buffer);
+    }
+
+    /**
+     * Done using the buffer, drops it if it grew too large
+     *
+     * @param buffer The buffer returned by {@link ThreadBuffer#get()}
+     * */
+    public void release(T buffer) {
+        if (this.capacity.applyAsInt(buffer) > MAX_RETAINED) {
+            this.buffers.remove();
+        }
+    }
+}
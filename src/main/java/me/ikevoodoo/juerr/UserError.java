@@ -1,10 +1,12 @@
 package me.ikevoodoo.juerr;
 
+import me.ikevoodoo.juerr.metrics.ErrorMetrics;
 import me.ikevoodoo.juerr.traces.StackTraceError;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ThreadFactory;
 
 /**
  * The UserError class is used to nicely print errors
@@ -12,12 +14,15 @@ import java.util.Optional;
  * @see UserError#from(String)
  * @see UserError#intoUserError(Throwable)
  * @see UserError#fromStacktrace(Throwable)
+ * @see UserError#deferred(Throwable)
+ * @see UserError#result(UserResult.Action)
  * @see UserError#UserError(String)
  * */
 @SuppressWarnings("unused")
 public class UserError {
 
     private static final PrintStreamPrinter streamPrinter = new PrintStreamPrinter(System.err);
+    private static final ThreadBuffer<StringBuilder> RENDER_BUFFER = ThreadBuffer.builders(1024);
 
     private final String message;
     private final List<UserErrorEntry> help;
@@ -42,10 +47,51 @@ public class UserError {
     }
 
     /**
-     * Sets UserError to be the thread uncaught error handler for all threads
+     * Sets UserError to be the default uncaught exception handler
+     * <p>
+     * It handles the errors of all threads without a handler of their own, including
+     * threads and virtual threads created later. No thread is enumerated or stopped.
      * */
     public static void setAllExceptionHandler() {
-        Thread.getAllStackTraces().forEach((thread, stackTraceElements) -> setExceptionHandler(thread));
+        setAllExceptionHandler(streamPrinter);
+    }
+
+    /**
+     * Sets UserError to be the default uncaught exception handler, printing to a specified Printer
+     *
+     * @param printer The Printer to print to
+     * @see UserError#setAllExceptionHandler()
+     * */
+    public static void setAllExceptionHandler(Printer<?> printer) {
+        Thread.setDefaultUncaughtExceptionHandler(handler(printer));
+    }
+
+    /**
+     * Decorate a ThreadFactory so every thread it creates uses UserError as its uncaught exception handler
+     * <p>
+     * Works for any factory, like {@code Thread.ofVirtual().factory()} or {@link java.util.concurrent.Executors#defaultThreadFactory()}.
+     *
+     * @param factory The ThreadFactory to decorate
+     * @return The decorated ThreadFactory
+     * */
+    public static ThreadFactory threadFactory(ThreadFactory factory) {
+        return threadFactory(factory, streamPrinter);
+    }
+
+    /**
+     * Decorate a ThreadFactory so every thread it creates uses UserError as its uncaught exception handler
+     *
+     * @param factory The ThreadFactory to decorate
+     * @param printer The Printer to print to
+     * @return The decorated ThreadFactory
+     * */
+    public static ThreadFactory threadFactory(ThreadFactory factory, Printer<?> printer) {
+        Thread.UncaughtExceptionHandler handler = handler(printer);
+        return runnable -> {
+            Thread thread = factory.newThread(runnable);
+            if (thread != null) thread.setUncaughtExceptionHandler(handler);
+            return thread;
+        };
     }
 
     /**
@@ -54,8 +100,34 @@ public class UserError {
      * @param thread The thread
      * */
     public static void setExceptionHandler(Thread thread) {
-        thread.setUncaughtExceptionHandler((t, e) ->
-                fromStacktrace(e).printAll(String.format("[Thread %s] Uncaught: ", t.getName())));
+        setExceptionHandler(thread, streamPrinter);
+    }
+
+    /**
+     * Sets UserError to be the thread's uncaught exception handler, printing to a specified Printer
+     *
+     * @param thread The thread
+     * @param printer The Printer to print to, use an {@link AsyncPrinter} to not block the failing thread
+     * */
+    public static void setExceptionHandler(Thread thread, Printer<?> printer) {
+        thread.setUncaughtExceptionHandler(handler(printer));
+    }
+
+    private static Thread.UncaughtExceptionHandler handler(Printer<?> printer) {
+        // Reserved now, there may be no memory left once an OutOfMemoryError arrives
+        EmergencyWriter.reserve();
+        return (t, e) -> {
+            // Other VM errors arrive once the stack has unwound, there usually is enough left to use the printer
+            if (e instanceof OutOfMemoryError && EmergencyWriter.write(t, e)) return;
+
+            try {
+                // Virtual threads are unnamed by default
+                String name = t.getName().isEmpty() ? "#" + t.getId() : t.getName();
+                fromStacktrace(e).printAll(printer, String.format("[Thread %s] Uncaught: ", name));
+            } catch (VirtualMachineError error) {
+                EmergencyWriter.write(t, e);
+            }
+        };
     }
 
     /**
@@ -68,12 +140,22 @@ public class UserError {
         try {
             runnable.run();
         } catch (Throwable throwable) {
-            return Optional.of(from(throwable.getLocalizedMessage()));
+            return Optional.of(intoUserError(throwable));
         }
 
         return Optional.empty();
     }
 
+    /**
+     * Run an action and return its value or the UserError it failed with, without throwing
+     *
+     * @param action An action, it may throw a {@link UserErrorException} or any other exception
+     * @return The result of the action
+     * */
+    public static <T> UserResult<T> result(UserResult.Action<T> action) {
+        return UserResult.of(action);
+    }
+
     /**
      * Create a new UserError from a message
      *
@@ -88,10 +170,11 @@ public class UserError {
      * Create a new UserError from a Throwable
      *
      * @param throwable The throwable you want to print
-     *                  Takes the localized message from the throwable
+     *                  Takes the localized message from the throwable, or a copy of the UserError a {@link UserErrorException} carries
      * @return An instance of UserError
      * */
     public static UserError intoUserError(Throwable throwable) {
+        if (throwable instanceof UserErrorException) return ((UserErrorException) throwable).error();
         return new UserError(throwable.getLocalizedMessage());
     }
 
@@ -115,9 +198,12 @@ public class UserError {
      * Create a new UserError from an Exception and generate reasons and help
      *
      * @param throwable The throable you want to print
+     *                  A {@link UserErrorException} keeps the reasons and help of the UserError it carries
      * @return An instance of UserError
      * */
     public static UserError fromStacktrace(Throwable throwable) {
+        if (throwable instanceof UserErrorException) return ((UserErrorException) throwable).analyse();
+
         UserError error = new UserError(throwable.getLocalizedMessage());
         StackTraceError stackTraceError = new StackTraceError(error);
 
@@ -126,6 +212,19 @@ public class UserError {
         return error;
     }
 
+    /**
+     * Create a new UserError from a Throwable, generating reasons and help only when they are first needed
+     * <p>
+     * Nothing is analysed for errors that are never printed and whose reasons and help are never read.
+     *
+     * @param throwable The throwable you want to print
+     * @return An instance of UserError
+     * @see UserError#fromStacktrace(Throwable)
+     * */
+    public static UserError deferred(Throwable throwable) {
+        return new DeferredUserError(throwable);
+    }
+
     /**
      * Print the UserError to the System.err PrintStream
      *
@@ -145,7 +244,9 @@ public class UserError {
      * @return The current UserError
      * */
     public UserError printAll(Printer<?> printer, String prefix) {
-        this.print(printer, prefix);
+        long start = ErrorMetrics.start();
+        printer.printError(this, prefix);
+        ErrorMetrics.recordRendering(start);
         return this;
     }
 
@@ -155,7 +256,7 @@ public class UserError {
      * @return The current UserError
      * */
     public UserError addHelp(String help) {
-        return this.addHelp(UserErrorEntry.from(help.split("\n")));
+        return this.addHelp(UserErrorEntry.parse(help));
     }
 
     /**
@@ -164,7 +265,7 @@ public class UserError {
      * @return The current UserError
      * */
     public UserError addReason(String reason) {
-        return this.addReason(UserErrorEntry.from(reason.split("\n")));
+        return this.addReason(UserErrorEntry.parse(reason));
     }
 
     /**
@@ -215,55 +316,77 @@ public class UserError {
     }
 
     /**
-     * Internal use only, prints the UserError to a PrintStream
+     * Copy the message, reasons and help into a new UserError
+     * */
+    UserError copy() {
+        UserError copy = new UserError(this.message);
+        for (UserErrorEntry reason : this.reasons()) {
+            copy.reasons.add(new UserErrorEntry().append(reason));
+        }
+        for (UserErrorEntry help : this.help()) {
+            copy.help.add(new UserErrorEntry().append(help));
+        }
+        return copy;
+    }
+
+    /**
+     * Render the UserError into a builder, the same text printAll prints
      *
-     * @param printer The Printer to print to
+     * @param builder The builder to append to
      * @param prefix The prefix to prepend to the message
+     * @return The builder
      * */
-    private void print(Printer<?> printer, String prefix) {
-        printer.printfln("%s%s", prefix, this.message);
-        this.printList(printer, this.reasons, " - caused by: ", "     |        ");
-        this.printList(printer, this.help, " + help: ", "     |   ");
+    public StringBuilder render(StringBuilder builder, String prefix) {
+        builder.append(prefix).append(this.message).append('\n');
+        this.renderList(builder, this.reasons(), " - caused by: ", "     |        ");
+        this.renderList(builder, this.help(), " + help: ", "     |   ");
+        return builder;
     }
 
     /**
-     * Internal use only, prints a list to a PrinStream
+     * Internal use only, prints the rendered UserError to a Printer
      *
      * @param printer The Printer to print to
-     * @param list The list to print
      * @param prefix The prefix to prepend to the message
-     * @param joiner The prefix for all messages after the first one
      * */
-    private void printList(Printer<?> printer, List<UserErrorEntry> list, String prefix, String joiner) {
-        if (list.isEmpty()) return;
-
-        UserErrorEntry first = findFirstWithLines(list);
-        if (first == null) return;
-        printer.printfln("%s%s", prefix, first.lines().get(0));
-        for (int i = 1; i < first.lines().size(); i++) {
-            printer.printfln("%s%s", joiner, first.lines().get(i));
-        }
-        int index = list.indexOf(first) + 1;
-
-        list.subList(index, list.size()).forEach(entry ->
-                entry.lines().forEach(line ->
-                        printer.printfln("%s%s", joiner, line)));
-
-        /*
-        UserErrorEntry first = list.get(0);
-
-        list.get(0).lines().forEach(line -> printer.printfln("%s%s", prefix, line));
+    void printText(Printer<?> printer, String prefix) {
+        StringBuilder builder = RENDER_BUFFER.get();
+        builder.setLength(0);
+        printer.print(this.render(builder, prefix));
+        ErrorMetrics.recordWritten(printer.getClass(), builder.length());
+        RENDER_BUFFER.release(builder);
+    }
 
-        list.subList(1, list.size()).forEach(entry ->
-                entry.lines().forEach(line ->
-                        printer.printfln("%s%s", joiner, line)));*/
+    /**
+     * Internal use only, prints several rendered UserErrors to a Printer with a single write
+     * */
+    static void printText(Printer<?> printer, List<UserError> errors, List<String> prefixes) {
+        StringBuilder builder = RENDER_BUFFER.get();
+        builder.setLength(0);
+        for (int i = 0; i < errors.size(); i++) {
+            errors.get(i).render(builder, prefixes.get(i));
+        }
+        printer.print(builder);
+        ErrorMetrics.recordWritten(printer.getClass(), builder.length());
+        RENDER_BUFFER.release(builder);
     }
 
-    private UserErrorEntry findFirstWithLines(List<UserErrorEntry> list) {
-        for (UserErrorEntry entry : list)
-            if (entry.lines().size() > 0)
-                return entry;
-        return null;
+    /**
+     * Internal use only, renders a list into a builder
+     *
+     * @param builder The builder to append to
+     * @param list The list to render
+     * @param prefix The prefix to prepend to the first line
+     * @param joiner The prefix for all lines after the first one
+     * */
+    private void renderList(StringBuilder builder, List<UserErrorEntry> list, String prefix, String joiner) {
+        String linePrefix = prefix;
+        for (UserErrorEntry entry : list) {
+            for (int i = 0; i < entry.lineCount(); i++) {
+                entry.appendLine(builder.append(linePrefix), i).append('\n');
+                linePrefix = joiner;
+            }
+        }
     }
 
 }
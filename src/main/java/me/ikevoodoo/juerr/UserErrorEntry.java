@@ -1,29 +1,251 @@
 package me.ikevoodoo.juerr;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.RandomAccess;
 
+/**
+ * The lines of a reason or help entry
+ * <p>
+ * All lines are stored in a single char buffer with the offset every line starts at.
+ * Lines are exposed as views into the buffer, {@link UserErrorEntry#lines()} copies them into Strings.
+ * Entries created with {@link UserErrorEntry#shared(CharSequence)} are read-only and can be added to many errors.
+ * */
 public class UserErrorEntry {
 
-    private final List<String> lines;
+    private static final char[] EMPTY_TEXT = new char[0];
+
+    private char[] text = EMPTY_TEXT;
+    private int length;
+    private int[] offsets = new int[4];
+    private int count;
+    private boolean readOnly;
+
+    public UserErrorEntry() {
+
+    }
 
     public UserErrorEntry(List<String> lines) {
-        this.lines = lines;
+        for (String line : lines) {
+            this.addLine(line);
+        }
     }
 
     public static UserErrorEntry from(String... message) {
-        List<String> lines = new ArrayList<>();
-        Collections.addAll(lines, message);
-        return new UserErrorEntry(lines);
+        UserErrorEntry entry = new UserErrorEntry();
+        for (String line : message) {
+            entry.addLine(line);
+        }
+        return entry;
+    }
+
+    /**
+     * Create a read-only entry of a single line, it can be shared between errors without copying it
+     *
+     * @param line The line
+     * @return The entry, adding lines to it throws an {@link UnsupportedOperationException}
+     * */
+    public static UserErrorEntry shared(CharSequence line) {
+        UserErrorEntry entry = new UserErrorEntry().addLine(line);
+        entry.readOnly = true;
+        return entry;
+    }
+
+    /**
+     * Split text into lines at every '\n' in a single pass
+     * <p>
+     * Like {@code text.split("\n")}, trailing empty lines are dropped.
+     *
+     * @param text The text
+     * @return The entry
+     * */
+    public static UserErrorEntry parse(CharSequence text) {
+        UserErrorEntry entry = new UserErrorEntry();
+        int length = text.length();
+        int end = length;
+        while (end > 0 && text.charAt(end - 1) == '\n') end--;
+        if (end == 0 && length > 0) return entry;
+
+        entry.ensureText(end);
+        int start = 0;
+        for (int i = 0; i < end; i++) {
+            if (text.charAt(i) != '\n') continue;
+            entry.addLine(text, start, i);
+            start = i + 1;
+        }
+        return entry.addLine(text, start, end);
+    }
+
+    public UserErrorEntry addLine(CharSequence line) {
+        String value = String.valueOf(line);
+        return this.addLine(value, 0, value.length());
+    }
+
+    /**
+     * Add a line prefixed with its number, like {@code "12. line"}
+     * */
+    UserErrorEntry addNumberedLine(int number, CharSequence line) {
+        this.checkWritable();
+        String value = String.valueOf(line);
+        String prefix = Integer.toString(number);
+        this.ensureText(prefix.length() + 2 + value.length());
+        prefix.getChars(0, prefix.length(), this.text, this.length);
+        this.length += prefix.length();
+        this.text[this.length++] = '.';
+        this.text[this.length++] = ' ';
+        value.getChars(0, value.length(), this.text, this.length);
+        this.length += value.length();
+        return this.endLine();
     }
 
     public UserErrorEntry append(UserErrorEntry entry) {
-        this.lines.addAll(entry.lines());
+        this.checkWritable();
+        int start = this.count;
+        int base = this.length;
+        this.ensureText(entry.length);
+        System.arraycopy(entry.text, 0, this.text, this.length, entry.length);
+        this.length += entry.length;
+
+        this.ensureOffsets(entry.count);
+        for (int i = 0; i <= entry.count; i++) {
+            this.offsets[start + i] = base + entry.offsets[i];
+        }
+        this.count += entry.count;
         return this;
     }
 
+    public int lineCount() {
+        return this.count;
+    }
+
+    /**
+     * Get a line without copying it
+     * <p>
+     * The view stays valid when lines are added later.
+     *
+     * @param index The index of the line
+     * @return The line
+     * */
+    public CharSequence line(int index) {
+        return new Line(this.text, this.start(index), this.end(index));
+    }
+
+    /**
+     * Append a line to a builder without creating a view
+     *
+     * @param builder The builder
+     * @param index The index of the line
+     * @return The builder
+     * */
+    public StringBuilder appendLine(StringBuilder builder, int index) {
+        int start = this.start(index);
+        return builder.append(this.text, start, this.end(index) - start);
+    }
+
+    /**
+     * Get the lines as Strings
+     *
+     * @return An unmodifiable view of the lines, every access copies the line
+     * */
     public List<String> lines() {
-        return lines;
+        return new Lines();
+    }
+
+    private UserErrorEntry addLine(CharSequence line, int start, int end) {
+        this.checkWritable();
+        int size = end - start;
+        this.ensureText(size);
+        if (line instanceof String) {
+            ((String) line).getChars(start, end, this.text, this.length);
+        } else {
+            for (int i = start; i < end; i++) {
+                this.text[this.length + i - start] = line.charAt(i);
+            }
+        }
+        this.length += size;
+        return this.endLine();
+    }
+
+    private UserErrorEntry endLine() {
+        this.ensureOffsets(1);
+        // offsets[count] is where the next line starts, set the end of this line
+        this.count++;
+        this.offsets[this.count] = this.length;
+        return this;
+    }
+
+    private void checkWritable() {
+        if (this.readOnly) throw new UnsupportedOperationException("Shared entries are read-only");
+    }
+
+    private int start(int index) {
+        if (index < 0 || index >= this.count) throw new IndexOutOfBoundsException("Line " + index + " of " + this.count);
+        return this.offsets[index];
+    }
+
+    private int end(int index) {
+        return this.offsets[index + 1];
+    }
+
+    private void ensureText(int additional) {
+        int needed = this.length + additional;
+        if (needed > this.text.length) {
+            this.text = Arrays.copyOf(this.text, Math.max(needed, this.text.length * 2));
+        }
+    }
+
+    private void ensureOffsets(int additional) {
+        int needed = this.count + additional + 1;
+        if (needed > this.offsets.length) {
+            this.offsets = Arrays.copyOf(this.offsets, Math.max(needed, this.offsets.length * 2));
+        }
+    }
+
+    private final class Lines extends AbstractList<String> implements RandomAccess {
+        @Override
+        public String get(int index) {
+            int start = start(index);
+            return new String(text, start, end(index) - start);
+        }
+
+        @Override
+        public int size() {
+            return count;
+        }
+    }
+
+    private static final class Line implements CharSequence {
+        private final char[] text;
+        private final int start;
+        private final int end;
+
+        private Line(char[] text, int start, int end) {
+            this.text = text;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public int length() {
+            return this.end - this.start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= length()) throw new IndexOutOfBoundsException(String.valueOf(index));
+            return this.text[this.start + index];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            if (start < 0 || end > length() || start > end) throw new IndexOutOfBoundsException(start + ", " + end);
+            return new Line(this.text, this.start + start, this.start + end);
+        }
+
+        @Override
+        public String toString() {
+            return new String(this.text, this.start, length());
+        }
     }
 }
@@ -0,0 +1,86 @@
+package me.ikevoodoo.juerr;
+
+import me.ikevoodoo.juerr.traces.StackTraceError;
+
+import java.util.Arrays;
+
+/**
+ * An exception carrying a UserError, for expected failures like invalid input
+ * <p>
+ * By default no stack trace is captured and suppression is disabled, creating one costs
+ * no more than the object itself and a single instance can be thrown from any thread.
+ * Constant errors can be kept in static final fields:
+ * <pre>
+ * private static final UserErrorException NO_NAME = new UserErrorException(UserError.from("no name given"));
+ * </pre>
+ * Use {@link UserErrorException#withStackTrace(UserError)} to capture the stack trace and {@link UserErrorException#analyse()} to analyse it.
+ * The carried error is copied when the exception is created and whenever it is handed out, so a shared instance never changes.
+ *
+ * @see UserResult
+ * */
+public class UserErrorException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final UserError error;
+    private boolean analysed;
+
+    /**
+     * Create a new UserErrorException without a stack trace
+     *
+     * @param error The error it carries
+     * */
+    public UserErrorException(UserError error) {
+        this(error, false);
+    }
+
+    public UserErrorException(String message) {
+        this(UserError.from(message));
+    }
+
+    private UserErrorException(UserError error, boolean writableStackTrace) {
+        super(error.message(), null, false, writableStackTrace);
+        this.error = error.copy();
+    }
+
+    /**
+     * Create a new UserErrorException capturing the stack trace of the caller
+     *
+     * @param error The error it carries
+     * @return The exception
+     * */
+    public static UserErrorException withStackTrace(UserError error) {
+        UserErrorException exception = new UserErrorException(error, true);
+        StackTraceElement[] trace = exception.getStackTrace();
+        int start = 0;
+        while (start < trace.length && trace[start].getClassName().equals(UserErrorException.class.getName())) {
+            start++;
+        }
+        exception.setStackTrace(Arrays.copyOfRange(trace, start, trace.length));
+        return exception;
+    }
+
+    /**
+     * Get a copy of the carried error
+     *
+     * @return The copy
+     * */
+    public synchronized UserError error() {
+        return this.error.copy();
+    }
+
+    /**
+     * Add the reasons and help generated from the stack trace to the carried error, once
+     * <p>
+     * Does nothing if no stack trace was captured.
+     *
+     * @return A copy of the carried error
+     * */
+    public synchronized UserError analyse() {
+        if (!this.analysed && getStackTrace().length > 0) {
+            this.analysed = true;
+            new StackTraceError(this.error).apply(this);
+        }
+        return this.error.copy();
+    }
+}
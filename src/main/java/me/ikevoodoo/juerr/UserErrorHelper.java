@@ -1,9 +1,5 @@
 package me.ikevoodoo.juerr;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-
 public class UserErrorHelper {
 
     private UserErrorHelper() {
@@ -11,23 +7,19 @@ public class UserErrorHelper {
     }
 
     public static UserErrorEntry snippet(String... lines) {
-        List<String> snippet = new ArrayList<>();
-        snippet.add("");
-        snippet.add("--- SNIPPET ---");
-        Collections.addAll(snippet, lines);
-        snippet.add("--- SNIPPET ---");
-        snippet.add("");
-        snippet.add("");
-
-        return new UserErrorEntry(snippet);
+        UserErrorEntry snippet = new UserErrorEntry().addLine("").addLine("--- SNIPPET ---");
+        for (String line : lines) {
+            snippet.addLine(line);
+        }
+        return snippet.addLine("--- SNIPPET ---").addLine("").addLine("");
     }
 
     public static UserErrorEntry snippet(int startLine, String... lines) {
-        String[] numberedLines = new String[lines.length];
+        UserErrorEntry snippet = new UserErrorEntry().addLine("").addLine("--- SNIPPET ---");
         for (int i = 0; i < lines.length; i++) {
-            numberedLines[i] = String.format("%s. %s", startLine + i, lines[i]);
+            snippet.addNumberedLine(startLine + i, lines[i]);
         }
-        return snippet(numberedLines);
+        return snippet.addLine("--- SNIPPET ---").addLine("").addLine("");
     }
 
 }
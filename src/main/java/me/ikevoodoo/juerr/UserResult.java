@@ -0,0 +1,98 @@
+package me.ikevoodoo.juerr;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * The value of an action, or the UserError it failed with
+ * <p>
+ * Lets expected failures be returned instead of thrown, nothing is thrown or captured unless asked for.
+ *
+ * @param <T> The type of the value
+ * @see UserError#result(UserResult.Action)
+ * */
+public final class UserResult<T> {
+
+    private final T value;
+    private final UserError error;
+
+    private UserResult(T value, UserError error) {
+        this.value = value;
+        this.error = error;
+    }
+
+    public static <T> UserResult<T> ok(T value) {
+        return new UserResult<>(value, null);
+    }
+
+    public static <T> UserResult<T> error(UserError error) {
+        return new UserResult<>(null, error);
+    }
+
+    /**
+     * Run an action and keep its value or failure
+     * <p>
+     * A thrown {@link UserErrorException} becomes a copy of the error it carries, other throwables
+     * become a UserError with their message like {@link UserError#intoUserError(Throwable)}.
+     *
+     * @param action The action
+     * @return The result
+     * */
+    public static <T> UserResult<T> of(Action<T> action) {
+        try {
+            return ok(action.run());
+        } catch (Throwable throwable) {
+            return error(UserError.intoUserError(throwable));
+        }
+    }
+
+    public boolean isOk() {
+        return this.error == null;
+    }
+
+    public boolean isError() {
+        return this.error != null;
+    }
+
+    /**
+     * Get the value
+     *
+     * @return The value
+     * @throws UserErrorException Without a stack trace, if the action failed
+     * */
+    public T value() {
+        if (this.error != null) throw new UserErrorException(this.error);
+        return this.value;
+    }
+
+    public T orElse(T other) {
+        return this.error == null ? this.value : other;
+    }
+
+    public Optional<T> toOptional() {
+        return this.error == null ? Optional.ofNullable(this.value) : Optional.empty();
+    }
+
+    /**
+     * Get the error
+     *
+     * @return The error, or null if the action succeeded
+     * */
+    public UserError error() {
+        return this.error;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <R> UserResult<R> map(Function<? super T, ? extends R> mapper) {
+        if (this.error != null) return (UserResult<R>) this;
+        return ok(mapper.apply(this.value));
+    }
+
+    /**
+     * An action producing a value, it may throw
+     * */
+    @FunctionalInterface
+    public interface Action<T> {
+        T run() throws Throwable;
+    }
+}
@@ -0,0 +1,88 @@
+package me.ikevoodoo.juerr.index;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * The compile time index of a project's classes, written by {@link ClassIndexProcessor}
+ * <p>
+ * Classes are grouped by package, a package line is followed by the binary
+ * names of its classes each on their own line, indented by a single space:
+ * <pre>
+ * me.ikevoodoo.app
+ *  Main
+ *  Main$Options
+ * </pre>
+ * */
+public final class ClassIndex {
+
+    /**
+     * The location of the index on the classpath
+     * */
+    public static final String LOCATION = "META-INF/juerr/classes.idx";
+
+    private ClassIndex() {
+
+    }
+
+    /**
+     * Read all class names in a package or its sub packages
+     *
+     * @param in The index to read, closed afterwards
+     * @param packageName The package, empty for every class
+     * @return The fully qualified binary names of the classes
+     * */
+    public static List<String> read(InputStream in, String packageName) throws IOException {
+        List<String> names = new ArrayList<>();
+        String packagePrefix = packageName + '.';
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String currentPackage = "";
+            boolean matches = packageName.isEmpty();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) continue;
+                if (line.charAt(0) != ' ') {
+                    currentPackage = line.equals(".") ? "" : line;
+                    matches = packageName.isEmpty()
+                            || currentPackage.equals(packageName)
+                            || currentPackage.startsWith(packagePrefix);
+                } else if (matches) {
+                    String simpleName = line.substring(1);
+                    names.add(currentPackage.isEmpty() ? simpleName : currentPackage + '.' + simpleName);
+                }
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Write class names as an index
+     *
+     * @param out The writer to write to
+     * @param names The fully qualified binary names of the classes
+     * */
+    public static void write(Writer out, Collection<String> names) throws IOException {
+        String currentPackage = null;
+        for (String name : new TreeSet<>(names)) {
+            int separator = name.lastIndexOf('.');
+            String packageName = separator == -1 ? "" : name.substring(0, separator);
+            if (!packageName.equals(currentPackage)) {
+                out.write(packageName.isEmpty() ? "." : packageName);
+                out.write('\n');
+                currentPackage = packageName;
+            }
+            out.write(' ');
+            out.write(name, separator + 1, name.length() - separator - 1);
+            out.write('\n');
+        }
+        out.flush();
+    }
+}
@@ -0,0 +1,94 @@
+package me.ikevoodoo.juerr.index;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Writes the {@link ClassIndex} of every compiled class, so the project can be loaded without walking the classpath
+ * <p>
+ * Registered as a service, it runs whenever juerr is on the compile classpath.
+ * Local and anonymous classes are not part of the index.
+ * */
+@SupportedAnnotationTypes("*")
+public class ClassIndexProcessor extends AbstractProcessor {
+
+    private final Set<String> names = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getRootElements()) {
+            collect(element);
+        }
+
+        if (roundEnv.processingOver() && !this.names.isEmpty()) {
+            write();
+        }
+        return false;
+    }
+
+    private void collect(Element element) {
+        if (!(element instanceof TypeElement)) return;
+
+        TypeElement type = (TypeElement) element;
+        this.names.add(processingEnv.getElementUtils().getBinaryName(type).toString());
+        for (Element enclosed : type.getEnclosedElements()) {
+            collect(enclosed);
+        }
+    }
+
+    private void write() {
+        // Keep the classes of an incremental build's earlier compilations, unless they were deleted since
+        try {
+            FileObject existing = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", ClassIndex.LOCATION);
+            try (InputStream in = existing.openInputStream()) {
+                for (String name : ClassIndex.read(in, "")) {
+                    if (!this.names.contains(name) && isCompiled(name)) {
+                        this.names.add(name);
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // No earlier index
+        }
+
+        try {
+            FileObject index = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", ClassIndex.LOCATION);
+            try (Writer out = new OutputStreamWriter(index.openOutputStream(), StandardCharsets.UTF_8)) {
+                ClassIndex.write(out, this.names);
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "Could not write " + ClassIndex.LOCATION + ": " + e.getMessage());
+        }
+    }
+
+    private boolean isCompiled(String name) {
+        int separator = name.lastIndexOf('.');
+        String packageName = separator == -1 ? "" : name.substring(0, separator);
+        try {
+            FileObject file = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, packageName, name.substring(separator + 1) + ".class");
+            file.openInputStream().close();
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package me.ikevoodoo.juerr.messages;
+
+import me.ikevoodoo.juerr.ThreadBuffer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A message parsed once into literal text and numbered slots
+ * <p>
+ * Slots are written as {@code {0}}, {@code {1}}, ... and two opening braces are a literal brace.
+ * Rendering appends the literals and arguments in order, the pattern is never parsed again.
+ * A slot without an argument is rendered as written.
+ * */
+public final class MessageTemplate {
+
+    private static final ThreadBuffer<StringBuilder> BUFFER = ThreadBuffer.builders(256);
+
+    private final String pattern;
+    private final String[] literals;
+    private final int[] slots;
+
+    private MessageTemplate(String pattern, String[] literals, int[] slots) {
+        this.pattern = pattern;
+        this.literals = literals;
+        this.slots = slots;
+    }
+
+    /**
+     * Parse a pattern
+     *
+     * @param pattern The pattern, like {@code "{0} tried to call {1}"}
+     * @return The MessageTemplate
+     * */
+    public static MessageTemplate parse(String pattern) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int length = pattern.length();
+        for (int i = 0; i < length; i++) {
+            char c = pattern.charAt(i);
+            if (c != '{') {
+                literal.append(c);
+                continue;
+            }
+
+            if (i + 1 < length && pattern.charAt(i + 1) == '{') {
+                literal.append('{');
+                i++;
+                continue;
+            }
+
+            int end = pattern.indexOf('}', i);
+            if (end == -1) throw new IllegalArgumentException("Unclosed slot at " + i + " in \"" + pattern + '"');
+            int slot;
+            try {
+                slot = Integer.parseInt(pattern.substring(i + 1, end));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid slot at " + i + " in \"" + pattern + '"', e);
+            }
+            if (slot < 0) throw new IllegalArgumentException("Invalid slot at " + i + " in \"" + pattern + '"');
+
+            literals.add(literal.toString());
+            literal.setLength(0);
+            slots.add(slot);
+            i = end;
+        }
+        literals.add(literal.toString());
+
+        int[] slotArray = new int[slots.size()];
+        for (int i = 0; i < slotArray.length; i++) {
+            slotArray[i] = slots.get(i);
+        }
+        return new MessageTemplate(pattern, literals.toArray(new String[0]), slotArray);
+    }
+
+    /**
+     * Render the message into a builder
+     *
+     * @param builder The builder to append to
+     * @param args The arguments of the slots
+     * @return The builder
+     * */
+    public StringBuilder render(StringBuilder builder, Object... args) {
+        for (int i = 0; i < this.slots.length; i++) {
+            builder.append(this.literals[i]);
+            int slot = this.slots[i];
+            if (slot < args.length) {
+                builder.append(args[slot]);
+            } else {
+                builder.append('{').append(slot).append('}');
+            }
+        }
+        return builder.append(this.literals[this.slots.length]);
+    }
+
+    /**
+     * Render the message using a reused builder
+     *
+     * @param args The arguments of the slots
+     * @return The message
+     * */
+    public String render(Object... args) {
+        if (this.slots.length == 0) return this.literals[0];
+
+        StringBuilder builder = BUFFER.get();
+        builder.setLength(0);
+        String message = this.render(builder, args).toString();
+        BUFFER.release(builder);
+        return message;
+    }
+
+    public String pattern() {
+        return this.pattern;
+    }
+
+    @Override
+    public String toString() {
+        return this.pattern;
+    }
+}
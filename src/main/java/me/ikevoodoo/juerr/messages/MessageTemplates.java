@@ -0,0 +1,89 @@
+package me.ikevoodoo.juerr.messages;
+
+import java.util.Locale;
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The templates of the messages juerr generates
+ * <p>
+ * Templates are looked up in the overrides, then in the configured bundle, then in the
+ * {@code me.ikevoodoo.juerr.messages.messages} bundle shipped with juerr. Add a
+ * {@code messages_<language>.properties} next to it or call {@link MessageTemplates#setBundle(ResourceBundle)} to translate them.
+ * Every template is parsed once and cached.
+ * */
+public class MessageTemplates {
+
+    public static final String BUNDLE = "me.ikevoodoo.juerr.messages.messages";
+
+    private static final ResourceBundle DEFAULTS = ResourceBundle.getBundle(BUNDLE, Locale.ROOT);
+    private static final ConcurrentHashMap<String, String> OVERRIDES = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, MessageTemplate> TEMPLATES = new ConcurrentHashMap<>();
+    private static volatile ResourceBundle bundle = load(Locale.getDefault());
+
+    private MessageTemplates() {
+
+    }
+
+    /**
+     * Get the template of a message
+     *
+     * @param key The key of the message
+     * @return The template, the key itself if no template exists
+     * */
+    public static MessageTemplate get(String key) {
+        MessageTemplate template = TEMPLATES.get(key);
+        if (template != null) return template;
+        return TEMPLATES.computeIfAbsent(key, name -> MessageTemplate.parse(getPattern(name)));
+    }
+
+    /**
+     * Use the templates of another locale
+     *
+     * @param locale The locale
+     * */
+    public static void setLocale(Locale locale) {
+        setBundle(load(locale));
+    }
+
+    /**
+     * Use the templates of a bundle, messages missing in it keep their default template
+     *
+     * @param resourceBundle The bundle
+     * */
+    public static void setBundle(ResourceBundle resourceBundle) {
+        bundle = resourceBundle;
+        TEMPLATES.clear();
+    }
+
+    /**
+     * Replace the template of a single message
+     *
+     * @param key The key of the message
+     * @param pattern The pattern, parsed right away
+     * */
+    public static void override(String key, String pattern) {
+        MessageTemplate template = MessageTemplate.parse(pattern);
+        OVERRIDES.put(key, pattern);
+        TEMPLATES.put(key, template);
+    }
+
+    private static String getPattern(String key) {
+        String pattern = OVERRIDES.get(key);
+        if (pattern != null) return pattern;
+
+        ResourceBundle current = bundle;
+        if (current != null && current.containsKey(key)) return current.getString(key);
+        if (DEFAULTS.containsKey(key)) return DEFAULTS.getString(key);
+        return key.replace("{", "{{");
+    }
+
+    private static ResourceBundle load(Locale locale) {
+        try {
+            return ResourceBundle.getBundle(BUNDLE, locale);
+        } catch (MissingResourceException e) {
+            return null;
+        }
+    }
+}
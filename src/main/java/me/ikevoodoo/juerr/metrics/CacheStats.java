@@ -0,0 +1,43 @@
+package me.ikevoodoo.juerr.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hit and miss counters of a cache
+ * */
+public final class CacheStats {
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    CacheStats() {
+
+    }
+
+    public void hit() {
+        if (ErrorMetrics.isEnabled()) this.hits.increment();
+    }
+
+    public void miss() {
+        if (ErrorMetrics.isEnabled()) this.misses.increment();
+    }
+
+    public long hits() {
+        return this.hits.sum();
+    }
+
+    public long misses() {
+        return this.misses.sum();
+    }
+
+    public double hitRate() {
+        long hits = hits();
+        long total = hits + misses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    void reset() {
+        this.hits.reset();
+        this.misses.reset();
+    }
+}
@@ -0,0 +1,172 @@
+package me.ikevoodoo.juerr.metrics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latencies of the work juerr does
+ * <p>
+ * Counts errors per exception class and per handler, the time spent analysing
+ * ({@link me.ikevoodoo.juerr.traces.StackTraceError#apply(Throwable)}) and rendering
+ * ({@link me.ikevoodoo.juerr.UserError#printAll(me.ikevoodoo.juerr.Printer, String)}),
+ * the characters written per Printer and the hit rates of the resolution caches.
+ * <p>
+ * Recording is allocation-free once a class has been seen, counters are striped {@link LongAdder}s
+ * held in {@link ClassValue}s. Enabled by default, expose it through JMX with {@link ErrorMetrics#registerMBean()}.
+ * */
+public final class ErrorMetrics {
+
+    public static final String OBJECT_NAME = "me.ikevoodoo.juerr:type=ErrorMetrics";
+
+    private static volatile boolean enabled = true;
+
+    private static final Counters EXCEPTIONS = new Counters();
+    private static final Counters HANDLERS = new Counters();
+    private static final Counters PRINTERS = new Counters();
+    private static final ConcurrentHashMap<String, CacheStats> CACHES = new ConcurrentHashMap<>();
+    private static final LatencyHistogram ANALYSIS = new LatencyHistogram();
+    private static final LatencyHistogram RENDERING = new LatencyHistogram();
+
+    private ErrorMetrics() {
+
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        ErrorMetrics.enabled = enabled;
+    }
+
+    /**
+     * Get the start time of a measurement
+     *
+     * @return The current time in nanoseconds, or 0 if metrics are disabled
+     * */
+    public static long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    public static void recordException(Class<?> type) {
+        if (enabled) EXCEPTIONS.get(type).increment();
+    }
+
+    /**
+     * Count a handler invocation
+     *
+     * @param type The exception class the handler was registered for
+     * */
+    public static void recordHandler(Class<?> type) {
+        if (enabled) HANDLERS.get(type).increment();
+    }
+
+    public static void recordAnalysis(long start) {
+        if (enabled && start != 0) ANALYSIS.record(System.nanoTime() - start);
+    }
+
+    public static void recordRendering(long start) {
+        if (enabled && start != 0) RENDERING.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Count written characters
+     *
+     * @param printer The class of the Printer that wrote them
+     * @param characters The amount of characters
+     * */
+    public static void recordWritten(Class<?> printer, long characters) {
+        if (enabled) PRINTERS.get(printer).add(characters);
+    }
+
+    /**
+     * Get the hit and miss counters of a cache, created on first use
+     *
+     * @param name The name of the cache
+     * @return The counters, keep a reference to it
+     * */
+    public static CacheStats cache(String name) {
+        return CACHES.computeIfAbsent(name, key -> new CacheStats());
+    }
+
+    public static Map<String, Long> exceptionCounts() {
+        return EXCEPTIONS.snapshot();
+    }
+
+    public static Map<String, Long> handlerCounts() {
+        return HANDLERS.snapshot();
+    }
+
+    public static Map<String, Long> writtenCharacters() {
+        return PRINTERS.snapshot();
+    }
+
+    public static Map<String, CacheStats> caches() {
+        return new TreeMap<>(CACHES);
+    }
+
+    public static LatencyHistogram analysis() {
+        return ANALYSIS;
+    }
+
+    public static LatencyHistogram rendering() {
+        return RENDERING;
+    }
+
+    /**
+     * Reset every counter and histogram
+     * */
+    public static void reset() {
+        EXCEPTIONS.reset();
+        HANDLERS.reset();
+        PRINTERS.reset();
+        CACHES.values().forEach(CacheStats::reset);
+        ANALYSIS.reset();
+        RENDERING.reset();
+    }
+
+    /**
+     * Register the metrics with the platform MBean server, does nothing if already registered
+     * */
+    public static void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(new StandardMBean(new ErrorMetricsView(), ErrorMetricsMBean.class), new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // Already registered
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register " + OBJECT_NAME, e);
+        }
+    }
+
+    /**
+     * Counters per class, the names are kept separately so classes are never pinned
+     * */
+    private static final class Counters extends ClassValue<LongAdder> {
+
+        private final ConcurrentHashMap<String, LongAdder> byName = new ConcurrentHashMap<>();
+
+        @Override
+        protected LongAdder computeValue(Class<?> type) {
+            return this.byName.computeIfAbsent(type.getName(), name -> new LongAdder());
+        }
+
+        private Map<String, Long> snapshot() {
+            Map<String, Long> snapshot = new TreeMap<>();
+            this.byName.forEach((name, adder) -> snapshot.put(name, adder.sum()));
+            return snapshot;
+        }
+
+        private void reset() {
+            this.byName.values().forEach(LongAdder::reset);
+        }
+    }
+}
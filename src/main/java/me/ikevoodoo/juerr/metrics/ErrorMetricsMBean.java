@@ -0,0 +1,33 @@
+package me.ikevoodoo.juerr.metrics;
+
+/**
+ * The JMX view of {@link ErrorMetrics}, times are in nanoseconds
+ * */
+public interface ErrorMetricsMBean {
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    String[] getExceptionCounts();
+
+    String[] getHandlerCounts();
+
+    String[] getWrittenCharacters();
+
+    String[] getCacheStats();
+
+    long getAnalysisCount();
+
+    double getAnalysisMeanNanos();
+
+    long getAnalysisP99Nanos();
+
+    long getRenderingCount();
+
+    double getRenderingMeanNanos();
+
+    long getRenderingP99Nanos();
+
+    void reset();
+}
@@ -0,0 +1,90 @@
+package me.ikevoodoo.juerr.metrics;
+
+import java.util.Map;
+
+/**
+ * The MBean registered by {@link ErrorMetrics#registerMBean()}
+ * */
+final class ErrorMetricsView implements ErrorMetricsMBean {
+
+    @Override
+    public boolean isEnabled() {
+        return ErrorMetrics.isEnabled();
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        ErrorMetrics.setEnabled(enabled);
+    }
+
+    @Override
+    public String[] getExceptionCounts() {
+        return format(ErrorMetrics.exceptionCounts());
+    }
+
+    @Override
+    public String[] getHandlerCounts() {
+        return format(ErrorMetrics.handlerCounts());
+    }
+
+    @Override
+    public String[] getWrittenCharacters() {
+        return format(ErrorMetrics.writtenCharacters());
+    }
+
+    @Override
+    public String[] getCacheStats() {
+        Map<String, CacheStats> caches = ErrorMetrics.caches();
+        String[] stats = new String[caches.size()];
+        int i = 0;
+        for (Map.Entry<String, CacheStats> entry : caches.entrySet()) {
+            CacheStats cache = entry.getValue();
+            stats[i++] = String.format("%s: hits=%s, misses=%s, hitRate=%.3f", entry.getKey(), cache.hits(), cache.misses(), cache.hitRate());
+        }
+        return stats;
+    }
+
+    @Override
+    public long getAnalysisCount() {
+        return ErrorMetrics.analysis().count();
+    }
+
+    @Override
+    public double getAnalysisMeanNanos() {
+        return ErrorMetrics.analysis().meanNanos();
+    }
+
+    @Override
+    public long getAnalysisP99Nanos() {
+        return ErrorMetrics.analysis().percentileNanos(99);
+    }
+
+    @Override
+    public long getRenderingCount() {
+        return ErrorMetrics.rendering().count();
+    }
+
+    @Override
+    public double getRenderingMeanNanos() {
+        return ErrorMetrics.rendering().meanNanos();
+    }
+
+    @Override
+    public long getRenderingP99Nanos() {
+        return ErrorMetrics.rendering().percentileNanos(99);
+    }
+
+    @Override
+    public void reset() {
+        ErrorMetrics.reset();
+    }
+
+    private static String[] format(Map<String, Long> counts) {
+        String[] formatted = new String[counts.size()];
+        int i = 0;
+        for (Map.Entry<String, Long> entry : counts.entrySet()) {
+            formatted[i++] = entry.getKey() + '=' + entry.getValue();
+        }
+        return formatted;
+    }
+}
@@ -0,0 +1,83 @@
+package me.ikevoodoo.juerr.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of durations in power of two buckets
+ * <p>
+ * Recording is allocation-free, every bucket is a striped {@link LongAdder}.
+ * Percentiles are reported as the upper bound of the bucket they fall in.
+ * */
+public final class LatencyHistogram {
+
+    private static final int BUCKETS = 64;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+
+    LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            this.buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Record a duration
+     *
+     * @param nanos The duration in nanoseconds
+     * */
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        this.buckets[Math.max(0, BUCKETS - 1 - Long.numberOfLeadingZeros(nanos))].increment();
+        this.count.increment();
+        this.total.add(nanos);
+    }
+
+    public long count() {
+        return this.count.sum();
+    }
+
+    public long totalNanos() {
+        return this.total.sum();
+    }
+
+    public double meanNanos() {
+        long count = count();
+        return count == 0 ? 0 : (double) totalNanos() / count;
+    }
+
+    /**
+     * Get an upper bound of a percentile
+     *
+     * @param percentile The percentile, between 0 and 100
+     * @return The upper bound in nanoseconds, 0 if nothing was recorded
+     * */
+    public long percentileNanos(double percentile) {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = this.buckets[i].sum();
+            total += counts[i];
+        }
+        if (total == 0) return 0;
+
+        long target = (long) Math.ceil(total * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return i >= 62 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    void reset() {
+        for (LongAdder bucket : this.buckets) {
+            bucket.reset();
+        }
+        this.count.reset();
+        this.total.reset();
+    }
+}
@@ -0,0 +1,65 @@
+package me.ikevoodoo.juerr.source;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A least recently used cache of source files bounded by their total size in bytes
+ * */
+final class SourceCache {
+
+    private final LinkedHashMap<String, SourceFile> files = new LinkedHashMap<>(16, 0.75f, true);
+    private long maxBytes;
+    private long bytes;
+
+    SourceCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    synchronized SourceFile get(String path) {
+        return this.files.get(path);
+    }
+
+    /**
+     * Add a file, evicting the least recently used ones until the cache fits
+     * <p>
+     * A file larger than the whole cache is not kept.
+     *
+     * @param path The path of the file relative to its source root
+     * @param file The file
+     * @return The file cached for the path
+     * */
+    synchronized SourceFile put(String path, SourceFile file) {
+        SourceFile existing = this.files.get(path);
+        if (existing != null) return existing;
+        if (file.weight() > this.maxBytes) return file;
+
+        this.files.put(path, file);
+        this.bytes += file.weight();
+        this.evict();
+        return file;
+    }
+
+    synchronized void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+        this.evict();
+    }
+
+    synchronized void clear() {
+        this.files.clear();
+        this.bytes = 0;
+    }
+
+    synchronized long bytes() {
+        return this.bytes;
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, SourceFile>> iterator = this.files.entrySet().iterator();
+        while (this.bytes > this.maxBytes && iterator.hasNext()) {
+            this.bytes -= iterator.next().getValue().weight();
+            iterator.remove();
+        }
+    }
+}
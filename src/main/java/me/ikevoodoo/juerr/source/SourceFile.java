@@ -0,0 +1,101 @@
+package me.ikevoodoo.juerr.source;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The content of a source file and the offsets of its lines
+ * <p>
+ * Files on the default file system are memory-mapped, entries of a sources jar are read once.
+ * Getting a line only decodes the bytes of that line.
+ * */
+final class SourceFile {
+
+    static final SourceFile MISSING = new SourceFile(ByteBuffer.allocate(0), new int[] {0});
+
+    private final ByteBuffer content;
+    private final int[] offsets;
+
+    private SourceFile(ByteBuffer content, int[] offsets) {
+        this.content = content;
+        this.offsets = offsets;
+    }
+
+    static SourceFile open(Path path) throws IOException {
+        ByteBuffer content;
+        if (path.getFileSystem() == FileSystems.getDefault()) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                content = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+        } else {
+            content = ByteBuffer.wrap(Files.readAllBytes(path)).asReadOnlyBuffer();
+        }
+        return new SourceFile(content, index(content));
+    }
+
+    /**
+     * Find the offset every line starts at, the last offset is the end of the file
+     * */
+    private static int[] index(ByteBuffer content) {
+        int limit = content.limit();
+        int[] offsets = new int[64];
+        int count = 1;
+        for (int i = 0; i < limit; i++) {
+            if (content.get(i) != '\n') continue;
+            if (count == offsets.length) offsets = grow(offsets);
+            offsets[count++] = i + 1;
+        }
+        if (offsets[count - 1] != limit) {
+            if (count == offsets.length) offsets = grow(offsets);
+            offsets[count++] = limit;
+        }
+
+        int[] trimmed = new int[count];
+        System.arraycopy(offsets, 0, trimmed, 0, count);
+        return trimmed;
+    }
+
+    private static int[] grow(int[] offsets) {
+        int[] grown = new int[offsets.length * 2];
+        System.arraycopy(offsets, 0, grown, 0, offsets.length);
+        return grown;
+    }
+
+    int lineCount() {
+        return this.offsets.length - 1;
+    }
+
+    /**
+     * Get a line without its line terminator
+     *
+     * @param number The line number, starting at 1
+     * @return The line
+     * */
+    String line(int number) {
+        int start = this.offsets[number - 1];
+        int end = this.offsets[number];
+        if (end > start && this.content.get(end - 1) == '\n') end--;
+        if (end > start && this.content.get(end - 1) == '\r') end--;
+
+        ByteBuffer slice = this.content.duplicate();
+        ((Buffer) slice).limit(end);
+        ((Buffer) slice).position(start);
+        return StandardCharsets.UTF_8.decode(slice).toString();
+    }
+
+    /**
+     * Get the amount of memory the file takes up in the cache
+     *
+     * @return The size in bytes
+     * */
+    long weight() {
+        return this.content.capacity() + 4L * this.offsets.length;
+    }
+}
@@ -0,0 +1,133 @@
+package me.ikevoodoo.juerr.source;
+
+import me.ikevoodoo.juerr.UserErrorEntry;
+import me.ikevoodoo.juerr.UserErrorHelper;
+import me.ikevoodoo.juerr.metrics.CacheStats;
+import me.ikevoodoo.juerr.metrics.ErrorMetrics;
+
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Shows the real source code around a line of a stack trace
+ * <p>
+ * Sources are looked up in the configured source directories and {@code -sources.jar} files, in the
+ * order they were added. Every file is opened once and kept in a cache bounded in bytes,
+ * repeated errors in the same file only decode the lines shown.
+ * */
+public class SourceSnippets {
+
+    private static final long DEFAULT_MAX_BYTES = 16 * 1024 * 1024;
+    private static final CacheStats STATS = ErrorMetrics.cache("source-snippets");
+
+    private static final List<Path> ROOTS = new CopyOnWriteArrayList<>();
+    private static final SourceCache CACHE = new SourceCache(DEFAULT_MAX_BYTES);
+
+    private SourceSnippets() {
+
+    }
+
+    /**
+     * Add a directory holding sources in their package directories, like {@code src/main/java}
+     *
+     * @param directory The directory
+     * */
+    public static void addSourceRoot(Path directory) {
+        ROOTS.add(directory);
+        // Files missing so far may be in the new root
+        CACHE.clear();
+    }
+
+    /**
+     * Add a sources jar
+     *
+     * @param jar The jar
+     * */
+    public static void addSourcesJar(Path jar) throws IOException {
+        FileSystem fileSystem = FileSystems.newFileSystem(jar, (ClassLoader) null);
+        addSourceRoot(fileSystem.getPath("/"));
+    }
+
+    /**
+     * Set the maximum amount of memory the cached sources may take up
+     *
+     * @param maxBytes The size in bytes, 16 MiB by default
+     * */
+    public static void setMaxCacheBytes(long maxBytes) {
+        CACHE.setMaxBytes(maxBytes);
+    }
+
+    public static long getCachedBytes() {
+        return CACHE.bytes();
+    }
+
+    /**
+     * Remove all source roots and cached sources
+     * */
+    public static void clear() {
+        ROOTS.clear();
+        CACHE.clear();
+    }
+
+    /**
+     * Create a numbered snippet of the source around a line
+     *
+     * @param className The fully qualified name of the class the line is in
+     * @param file The name of the source file, as found in the stack trace
+     * @param line The line number
+     * @param context The amount of lines shown before and after the line
+     * @return The snippet, or null if the source was not found
+     * */
+    public static UserErrorEntry snippet(String className, String file, int line, int context) {
+        SourceFile source = find(className, file);
+        if (source == null || line < 1 || line > source.lineCount()) return null;
+
+        int start = Math.max(1, line - context);
+        int end = Math.min(source.lineCount(), line + context);
+        String[] lines = new String[end - start + 1];
+        for (int i = start; i <= end; i++) {
+            lines[i - start] = source.line(i);
+        }
+        return UserErrorHelper.snippet(start, lines);
+    }
+
+    private static SourceFile find(String className, String file) {
+        if (file == null || ROOTS.isEmpty()) return null;
+
+        String path = getPath(className, file);
+        SourceFile source = CACHE.get(path);
+        if (source != null) {
+            STATS.hit();
+            return source == SourceFile.MISSING ? null : source;
+        }
+
+        STATS.miss();
+        source = CACHE.put(path, load(path));
+        return source == SourceFile.MISSING ? null : source;
+    }
+
+    private static SourceFile load(String path) {
+        for (Path root : ROOTS) {
+            Path candidate = root.resolve(path);
+            if (!Files.isRegularFile(candidate)) continue;
+
+            try {
+                return SourceFile.open(candidate);
+            } catch (IOException e) {
+                // Unreadable, try the next root
+            }
+        }
+        return SourceFile.MISSING;
+    }
+
+    private static String getPath(String className, String file) {
+        int lastDot = className.lastIndexOf('.');
+        if (lastDot == -1) return file;
+        return className.substring(0, lastDot).replace('.', '/') + '/' + file;
+    }
+}
@@ -0,0 +1,128 @@
+package me.ikevoodoo.juerr.traces;
+
+import me.ikevoodoo.juerr.UserErrorEntry;
+import me.ikevoodoo.juerr.metrics.CacheStats;
+import me.ikevoodoo.juerr.metrics.ErrorMetrics;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A bounded cache of formatted frames, recurring frames are formatted once and share one String
+ * <p>
+ * Frames are kept in two generations. When the current generation is full it becomes the old one
+ * and the previous old one is dropped, frames still in use are moved back on their next lookup.
+ * Lookups never lock and the cache never holds more than twice the generation size.
+ * Every frame also keeps a shared reason entry per indentation, adding a cached frame to an error allocates nothing.
+ * */
+final class FrameCache {
+
+    private static final int GENERATION_SIZE = 2048;
+    private static final CacheStats STATS = ErrorMetrics.cache("frame-format");
+
+    private static volatile ConcurrentHashMap<StackTraceElement, Frame> current = new ConcurrentHashMap<>();
+    private static volatile ConcurrentHashMap<StackTraceElement, Frame> previous = new ConcurrentHashMap<>();
+
+    private FrameCache() {
+
+    }
+
+    /**
+     * Get the formatted line of a frame, like {@code Outer.Inner.method(File.java:12)}
+     *
+     * @param element The frame
+     * @return The line
+     * */
+    static String format(StackTraceElement element) {
+        return frame(element).line;
+    }
+
+    /**
+     * Get the formatted line of a frame as a shared reason entry
+     *
+     * @param element The frame
+     * @param depth The nesting depth, every level indents the line by two spaces
+     * @return The read-only entry
+     * */
+    static UserErrorEntry entry(StackTraceElement element, int depth) {
+        return frame(element).entry(depth);
+    }
+
+    private static Frame frame(StackTraceElement element) {
+        ConcurrentHashMap<StackTraceElement, Frame> current = FrameCache.current;
+        Frame frame = current.get(element);
+        if (frame != null) {
+            STATS.hit();
+            return frame;
+        }
+
+        frame = previous.get(element);
+        if (frame != null) {
+            STATS.hit();
+        } else {
+            STATS.miss();
+            frame = new Frame(formatFrame(element));
+        }
+
+        if (current.size() >= GENERATION_SIZE) {
+            rotate(current);
+        }
+        Frame existing = FrameCache.current.putIfAbsent(element, frame);
+        return existing == null ? frame : existing;
+    }
+
+    static void clear() {
+        synchronized (FrameCache.class) {
+            previous = new ConcurrentHashMap<>();
+            current = new ConcurrentHashMap<>();
+        }
+    }
+
+    private static void rotate(ConcurrentHashMap<StackTraceElement, Frame> full) {
+        synchronized (FrameCache.class) {
+            // Another thread may have rotated already
+            if (current != full) return;
+            previous = full;
+            current = new ConcurrentHashMap<>();
+        }
+    }
+
+    private static String formatFrame(StackTraceElement element) {
+        String className = element.getClassName();
+        int lastDot = className.lastIndexOf('.');
+        StringBuilder builder = new StringBuilder(className.length() + element.getMethodName().length() + 24);
+        for (int i = lastDot + 1; i < className.length(); i++) {
+            char c = className.charAt(i);
+            builder.append(c == '$' ? '.' : c);
+        }
+        return builder.append('.').append(element.getMethodName())
+                .append('(').append(element.getFileName())
+                .append(':').append(element.getLineNumber())
+                .append(')').toString();
+    }
+
+    private static final class Frame {
+        private final String line;
+        private volatile UserErrorEntry[] entries = new UserErrorEntry[1];
+
+        private Frame(String line) {
+            this.line = line;
+        }
+
+        private UserErrorEntry entry(int depth) {
+            UserErrorEntry[] entries = this.entries;
+            if (depth < entries.length && entries[depth] != null) return entries[depth];
+
+            // Racing threads may both create the entry, either one is fine
+            StringBuilder indented = new StringBuilder(depth * 2 + this.line.length());
+            for (int i = 0; i < depth; i++) {
+                indented.append("  ");
+            }
+            UserErrorEntry entry = UserErrorEntry.shared(indented.append(this.line));
+            UserErrorEntry[] grown = Arrays.copyOf(entries, Math.max(entries.length, depth + 1));
+            grown[depth] = entry;
+            this.entries = grown;
+            return entry;
+        }
+    }
+}
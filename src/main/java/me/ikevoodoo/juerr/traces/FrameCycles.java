@@ -0,0 +1,73 @@
+package me.ikevoodoo.juerr.traces;
+
+/**
+ * Finds repeating cycles of frames in a stack trace, like the ones of a StackOverflowError
+ * <p>
+ * Every window of frames has a rolling hash computed from prefix hashes, comparing two windows
+ * is constant time. Candidates are confirmed with {@link StackTraceElement#equals(Object)}.
+ * */
+final class FrameCycles {
+
+    private static final int MAX_PERIOD = 64;
+    private static final int MIN_REPEATS = 3;
+    private static final long BASE = 0x9E3779B97F4A7C15L;
+
+    private final StackTraceElement[] trace;
+    private final int count;
+    private final long[] prefix;
+    private final long[] powers;
+
+    FrameCycles(StackTraceElement[] trace, int count) {
+        this.trace = trace;
+        this.count = count;
+        this.prefix = new long[count + 1];
+        for (int i = 0; i < count; i++) {
+            this.prefix[i + 1] = this.prefix[i] * BASE + trace[i].hashCode();
+        }
+
+        int periods = Math.min(MAX_PERIOD, count / MIN_REPEATS);
+        this.powers = new long[periods + 1];
+        this.powers[0] = 1;
+        for (int i = 1; i <= periods; i++) {
+            this.powers[i] = this.powers[i - 1] * BASE;
+        }
+    }
+
+    /**
+     * Find the shortest cycle starting at a frame
+     *
+     * @param start The index of the frame
+     * @return The amount of frames in the cycle, or 0 if no cycle starts there
+     * */
+    int period(int start) {
+        int periods = Math.min(this.powers.length - 1, (this.count - start) / MIN_REPEATS);
+        for (int period = 1; period <= periods; period++) {
+            long hash = this.hash(start, period);
+            if (hash == this.hash(start + period, period)
+                    && hash == this.hash(start + 2 * period, period)
+                    && this.repeats(start, period) >= MIN_REPEATS) {
+                return period;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Count how many times a cycle repeats back to back
+     *
+     * @param start The index of the first frame of the cycle
+     * @param period The amount of frames in the cycle
+     * @return The amount of repetitions, including the first one
+     * */
+    int repeats(int start, int period) {
+        int end = start + period;
+        while (end < this.count && this.trace[end].equals(this.trace[end - period])) {
+            end++;
+        }
+        return (end - start) / period;
+    }
+
+    private long hash(int start, int length) {
+        return this.prefix[start + length] - this.prefix[start] * this.powers[length];
+    }
+}
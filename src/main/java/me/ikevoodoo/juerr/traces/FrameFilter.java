@@ -0,0 +1,97 @@
+package me.ikevoodoo.juerr.traces;
+
+import me.ikevoodoo.juerr.PrefixTrie;
+
+/**
+ * Rules deciding which stack frames become reasons
+ * <p>
+ * Rules are package or class name prefixes, {@code org.springframework} and {@code org.springframework.*}
+ * are the same rule. The longest matching rule wins, so a package can be included inside an excluded one.
+ * Runs of collapsed frames are printed as a single "(N framework frames)" line.
+ * The rules are kept in a {@link PrefixTrie}, matching a frame costs the same no matter how many rules there are.
+ *
+ * @see StackTraceError#setFrameFilter(FrameFilter)
+ * */
+public class FrameFilter {
+
+    /**
+     * What happens to a frame
+     * */
+    public enum Action {
+        /**
+         * Print the frame
+         * */
+        INCLUDE,
+        /**
+         * Leave the frame out
+         * */
+        EXCLUDE,
+        /**
+         * Count the frame into the "(N framework frames)" line of its run
+         * */
+        COLLAPSE
+    }
+
+    private volatile PrefixTrie<Action> rules = new PrefixTrie<>();
+    private volatile int maxDepth = Integer.MAX_VALUE;
+
+    /**
+     * Create a FrameFilter collapsing the JDK and common framework packages
+     *
+     * @return The FrameFilter
+     * */
+    public static FrameFilter defaults() {
+        return new FrameFilter()
+                .collapse("java.", "javax.", "jdk.", "sun.", "com.sun.")
+                .collapse("org.springframework.", "io.netty.", "org.apache.", "org.eclipse.jetty.", "reactor.");
+    }
+
+    public FrameFilter include(String... prefixes) {
+        return this.add(Action.INCLUDE, prefixes);
+    }
+
+    public FrameFilter exclude(String... prefixes) {
+        return this.add(Action.EXCLUDE, prefixes);
+    }
+
+    public FrameFilter collapse(String... prefixes) {
+        return this.add(Action.COLLAPSE, prefixes);
+    }
+
+    /**
+     * Set the maximum amount of lines printed per stack trace
+     *
+     * @param maxDepth The amount of lines, the remaining frames are summarized in one line
+     * @return The current FrameFilter
+     * */
+    public FrameFilter maxDepth(int maxDepth) {
+        if (maxDepth < 1) throw new IllegalArgumentException("maxDepth must be positive");
+        this.maxDepth = maxDepth;
+        return this;
+    }
+
+    public int maxDepth() {
+        return this.maxDepth;
+    }
+
+    /**
+     * Get the action of the longest rule matching a class
+     *
+     * @param className The fully qualified class name
+     * @return The action, {@link Action#INCLUDE} if no rule matches
+     * */
+    public Action action(String className) {
+        Action action = this.rules.match(className);
+        return action == null ? Action.INCLUDE : action;
+    }
+
+    private synchronized FrameFilter add(Action action, String... prefixes) {
+        // Copy on write, frames are matched without locking
+        PrefixTrie<Action> rules = new PrefixTrie<Action>().putAll(this.rules);
+        for (String prefix : prefixes) {
+            rules.put(prefix.endsWith(".*") ? prefix.substring(0, prefix.length() - 1) : prefix, action);
+        }
+        this.rules = rules;
+        return this;
+    }
+}
@@ -0,0 +1,35 @@
+package me.ikevoodoo.juerr.traces;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * A reversed, lazily populated view over a stack trace
+ * <p>
+ * Lines are only created (and resolved) when they are accessed.
+ * */
+final class LazyStackTraceLines extends AbstractList<StackTraceLine> implements RandomAccess {
+
+    private final StackTraceElement[] elements;
+    private final StackTraceLine[] lines;
+
+    LazyStackTraceLines(StackTraceElement[] elements) {
+        this.elements = elements;
+        this.lines = new StackTraceLine[elements.length];
+    }
+
+    @Override
+    public StackTraceLine get(int index) {
+        StackTraceLine line = this.lines[index];
+        if (line == null) {
+            line = StackTraceLine.of(this.elements[this.elements.length - 1 - index]);
+            this.lines[index] = line;
+        }
+        return line;
+    }
+
+    @Override
+    public int size() {
+        return this.elements.length;
+    }
+}
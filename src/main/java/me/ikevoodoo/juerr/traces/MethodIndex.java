@@ -0,0 +1,287 @@
+package me.ikevoodoo.juerr.traces;
+
+import me.ikevoodoo.juerr.metrics.CacheStats;
+import me.ikevoodoo.juerr.metrics.ErrorMetrics;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves stack frames to the exact declared method, using the line number table of the class
+ * <p>
+ * One index is built per class and held in a {@link ClassValue}, so classloaders are never pinned.
+ * Resolved frames are memoized, later lookups of the same frame cost a single hash lookup.
+ * */
+final class MethodIndex {
+
+    private static final ClassValue<MethodIndex> INDEXES = new ClassValue<MethodIndex>() {
+        @Override
+        protected MethodIndex computeValue(Class<?> type) {
+            return new MethodIndex(type);
+        }
+    };
+
+    private static final CacheStats STATS = ErrorMetrics.cache("method-index");
+
+    private final Map<String, MethodRange[]> methods;
+    private final ConcurrentHashMap<Frame, Method> resolved = new ConcurrentHashMap<>();
+
+    private MethodIndex(Class<?> clazz) {
+        this.methods = index(clazz);
+    }
+
+    static MethodIndex of(Class<?> clazz) {
+        return INDEXES.get(clazz);
+    }
+
+    /**
+     * Find the declared method with the given name containing the given line
+     *
+     * @param name The name of the method
+     * @param line The line number of the frame, negative if unknown
+     * @return The method, or null if the class declares no method with that name
+     * */
+    Method find(String name, int line) {
+        MethodRange[] ranges = this.methods.get(name);
+        if (ranges == null) return null;
+        if (ranges.length == 1 || line < 0) return ranges[0].method;
+
+        Frame frame = new Frame(name, line);
+        Method method = this.resolved.get(frame);
+        if (method != null) {
+            STATS.hit();
+            return method;
+        }
+        STATS.miss();
+
+        method = ranges[0].method;
+        for (MethodRange range : ranges) {
+            if (range.contains(line)) {
+                method = range.method;
+                break;
+            }
+        }
+        this.resolved.putIfAbsent(frame, method);
+        return method;
+    }
+
+    private static Map<String, MethodRange[]> index(Class<?> clazz) {
+        Map<String, int[]> lines = readLineRanges(clazz);
+        Map<String, List<MethodRange>> byName = new HashMap<>();
+        for (Method method : clazz.getDeclaredMethods()) {
+            if (method.isBridge()) continue;
+            int[] range = lines.get(method.getName() + descriptor(method));
+            MethodRange methodRange = range == null
+                    ? new MethodRange(method, Integer.MAX_VALUE, Integer.MIN_VALUE)
+                    : new MethodRange(method, range[0], range[1]);
+            byName.computeIfAbsent(method.getName(), name -> new ArrayList<>()).add(methodRange);
+        }
+
+        Map<String, MethodRange[]> methods = new HashMap<>();
+        byName.forEach((name, ranges) -> methods.put(name, ranges.toArray(new MethodRange[0])));
+        return methods;
+    }
+
+    /**
+     * Read the first and last line of every method in the class file
+     *
+     * @return A map of name + descriptor to the line range, empty if the class file can not be read
+     * */
+    private static Map<String, int[]> readLineRanges(Class<?> clazz) {
+        Map<String, int[]> ranges = new HashMap<>();
+        String resource = "/" + clazz.getName().replace('.', '/') + ".class";
+        try (InputStream stream = clazz.getResourceAsStream(resource)) {
+            if (stream == null) return ranges;
+            // Buffer the class file, skipBytes may skip less than asked on compressed streams
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(readAll(stream)));
+            if (in.readInt() != 0xCAFEBABE) return ranges;
+            in.readInt(); // minor and major version
+
+            String[] utf8 = readConstantPool(in);
+            in.skipBytes(6); // access flags, this class, super class
+            in.skipBytes(in.readUnsignedShort() * 2); // interfaces
+
+            int fields = in.readUnsignedShort();
+            for (int i = 0; i < fields; i++) {
+                in.skipBytes(6);
+                skipAttributes(in);
+            }
+
+            int methods = in.readUnsignedShort();
+            for (int i = 0; i < methods; i++) {
+                in.skipBytes(2);
+                String name = utf8[in.readUnsignedShort()];
+                String descriptor = utf8[in.readUnsignedShort()];
+                int[] range = readMethodLines(in, utf8);
+                if (range != null) {
+                    ranges.put(name + descriptor, range);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Without line numbers every overload has an empty range, the first one is used
+        }
+        return ranges;
+    }
+
+    private static byte[] readAll(InputStream stream) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = stream.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static String[] readConstantPool(DataInputStream in) throws IOException {
+        int count = in.readUnsignedShort();
+        String[] utf8 = new String[count];
+        for (int i = 1; i < count; i++) {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case 1: // Utf8
+                    utf8[i] = in.readUTF();
+                    break;
+                case 7: case 8: case 16: case 19: case 20: // Class, String, MethodType, Module, Package
+                    in.skipBytes(2);
+                    break;
+                case 15: // MethodHandle
+                    in.skipBytes(3);
+                    break;
+                case 3: case 4: case 9: case 10: case 11: case 12: case 17: case 18:
+                    in.skipBytes(4);
+                    break;
+                case 5: case 6: // Long and Double take two slots
+                    in.skipBytes(8);
+                    i++;
+                    break;
+                default:
+                    throw new IOException("Unknown constant pool tag " + tag);
+            }
+        }
+        return utf8;
+    }
+
+    private static int[] readMethodLines(DataInputStream in, String[] utf8) throws IOException {
+        int[] range = null;
+        int attributes = in.readUnsignedShort();
+        for (int i = 0; i < attributes; i++) {
+            String name = utf8[in.readUnsignedShort()];
+            int length = in.readInt();
+            if (!"Code".equals(name)) {
+                in.skipBytes(length);
+                continue;
+            }
+
+            in.skipBytes(4); // max stack, max locals
+            in.skipBytes(in.readInt()); // code
+            in.skipBytes(in.readUnsignedShort() * 8); // exception table
+            int codeAttributes = in.readUnsignedShort();
+            for (int j = 0; j < codeAttributes; j++) {
+                String codeName = utf8[in.readUnsignedShort()];
+                int codeLength = in.readInt();
+                if (!"LineNumberTable".equals(codeName)) {
+                    in.skipBytes(codeLength);
+                    continue;
+                }
+
+                int entries = in.readUnsignedShort();
+                for (int k = 0; k < entries; k++) {
+                    in.skipBytes(2); // start pc
+                    int line = in.readUnsignedShort();
+                    if (range == null) {
+                        range = new int[] {line, line};
+                    } else {
+                        range[0] = Math.min(range[0], line);
+                        range[1] = Math.max(range[1], line);
+                    }
+                }
+            }
+        }
+        return range;
+    }
+
+    private static void skipAttributes(DataInputStream in) throws IOException {
+        int attributes = in.readUnsignedShort();
+        for (int i = 0; i < attributes; i++) {
+            in.skipBytes(2);
+            in.skipBytes(in.readInt());
+        }
+    }
+
+    private static String descriptor(Method method) {
+        StringBuilder sb = new StringBuilder("(");
+        for (Class<?> type : method.getParameterTypes()) {
+            descriptor(sb, type);
+        }
+        sb.append(')');
+        descriptor(sb, method.getReturnType());
+        return sb.toString();
+    }
+
+    private static void descriptor(StringBuilder sb, Class<?> type) {
+        if (type.isArray()) {
+            sb.append(type.getName().replace('.', '/'));
+        } else if (type.isPrimitive()) {
+            if (type == void.class) sb.append('V');
+            else if (type == boolean.class) sb.append('Z');
+            else if (type == byte.class) sb.append('B');
+            else if (type == char.class) sb.append('C');
+            else if (type == short.class) sb.append('S');
+            else if (type == int.class) sb.append('I');
+            else if (type == long.class) sb.append('J');
+            else if (type == float.class) sb.append('F');
+            else sb.append('D');
+        } else {
+            sb.append('L').append(type.getName().replace('.', '/')).append(';');
+        }
+    }
+
+    private static final class MethodRange {
+        private final Method method;
+        private final int first;
+        private final int last;
+
+        private MethodRange(Method method, int first, int last) {
+            this.method = method;
+            this.first = first;
+            this.last = last;
+        }
+
+        private boolean contains(int line) {
+            return line >= this.first && line <= this.last;
+        }
+    }
+
+    private static final class Frame {
+        private final String name;
+        private final int line;
+
+        private Frame(String name, int line) {
+            this.name = name;
+            this.line = line;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Frame)) return false;
+            Frame frame = (Frame) o;
+            return this.line == frame.line && this.name.equals(frame.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * this.name.hashCode() + this.line;
+        }
+    }
+}
@@ -3,13 +3,19 @@ package me.ikevoodoo.juerr.traces;
 import me.ikevoodoo.juerr.ArrayUtils;
 import me.ikevoodoo.juerr.UserErrorEntry;
 import me.ikevoodoo.juerr.UserErrorHelper;
+import me.ikevoodoo.juerr.messages.MessageTemplate;
+import me.ikevoodoo.juerr.messages.MessageTemplates;
+import me.ikevoodoo.juerr.source.SourceSnippets;
 
+import java.lang.reflect.Method;
+import java.util.Arrays;
 import java.util.List;
 
 public class StackTraceCause {
 
     private final List<StackTraceLine> last;
     private final StackTraceLine error;
+    private String errorParameters;
 
     public StackTraceCause(List<StackTraceLine> last, StackTraceLine error) {
         this.last = last;
@@ -24,17 +30,30 @@ public class StackTraceCause {
         return error;
     }
 
+    /**
+     * Check if the classes and methods of both the caller and the called frame are known
+     * <p>
+     * Constructors, static initializers and classes that can not be loaded have no method,
+     * no explanation or help that mentions them can be generated.
+     *
+     * @return If the frames are resolved
+     * */
+    public boolean isResolved() {
+        return !last.isEmpty() && error.clazz().isPresent() && error.method().isPresent()
+                && caller().clazz().isPresent() && caller().method().isPresent();
+    }
+
     public UserErrorEntry generateExplanation(StackTraceMode mode, Throwable throwable) {
+        if (mode != StackTraceMode.SOURCE && !isResolved()) return UserErrorEntry.from();
         switch (mode) {
             case TRIED_TO_CALL:
-                String template = "%s.%s(%s) tried to call %s.%s(%s) on line %s in file %s";
                 StackTraceLine bef = last.get(last.size() - 1);
-                return UserErrorEntry.from(String.format(template,
-                        bef.clazz().get().getSimpleName(),
-                        bef.method().get().getName(),
-                        ArrayUtils.toString(bef.method().get().getParameterTypes()),
-                        error.clazz().get().getSimpleName(),
-                        error.method().get().getName(),
+                return UserErrorEntry.from(MessageTemplates.get("cause.tried-to-call").render(
+                        callerClass().getSimpleName(),
+                        callerMethod().getName(),
+                        ArrayUtils.toString(callerMethod().getParameterTypes()),
+                        errorClass().getSimpleName(),
+                        errorMethod().getName(),
                         getErrorCalled(throwable),
                         bef.line(),
                         bef.file()));
@@ -44,52 +63,48 @@ public class StackTraceCause {
     }
 
     public UserErrorEntry generateHelp(StackTraceMode mode, Throwable throwable) {
+        if (mode != StackTraceMode.SOURCE && !isResolved()) return UserErrorEntry.from();
         switch (mode) {
             case TRIED_TO_CALL:
                 if (throwable instanceof NullPointerException) {
-                    UserErrorEntry entry = UserErrorEntry.from(String.format(
-                            "Try passing in a %s instance to %s.%s(%s)",
-                            ArrayUtils.toString(error.method().get().getParameterTypes()),
-                            error.clazz().get().getSimpleName(),
-                            error.method().get().getName(),
-                            ArrayUtils.toString(error.method().get().getParameterTypes())
+                    UserErrorEntry entry = UserErrorEntry.from(MessageTemplates.get("help.pass-instance").render(
+                            getErrorParameters(),
+                            errorClass().getSimpleName(),
+                            errorMethod().getName(),
+                            getErrorParameters()
                     ));
                     StackTraceLine bef = last.get(last.size() - 1);
                     entry.append(UserErrorHelper.snippet(bef.line(),
-                            String.format(
-                                    "%s.%s(%s);",
-                                    error.clazz().get().getSimpleName(),
-                                    error.method().get().getName(),
+                            MessageTemplates.get("snippet.call").render(
+                                    errorClass().getSimpleName(),
+                                    errorMethod().getName(),
                                     getErrorParamExample()
                             )
                     ));
                     return entry;
                 }
             case TRY_CATCH:
-                UserErrorEntry entry = UserErrorEntry.from("Wrap in a try-catch");
+                UserErrorEntry entry = UserErrorEntry.from(MessageTemplates.get("help.try-catch").render());
                 StackTraceLine bef = last.get(last.size() - 1);
                 entry.append(UserErrorHelper.snippet(bef.line(),
-                                "try {",
-                                String.format("  %s.%s(%s);",
-                                        error.clazz().get().getSimpleName(),
-                                        error.method().get().getName(),
-                                        ArrayUtils.toString(error.method().get().getParameterTypes())
+                                MessageTemplates.get("snippet.try").render(),
+                                MessageTemplates.get("snippet.try-call").render(
+                                        errorClass().getSimpleName(),
+                                        errorMethod().getName(),
+                                        getErrorParameters()
                                 ),
-                                String.format("} catch (%s exception) {", throwable.getClass().getSimpleName()),
-                                "  // Handle your error",
-                                "  return;",
-                                "}"
+                                MessageTemplates.get("snippet.catch").render(throwable.getClass().getSimpleName()),
+                                MessageTemplates.get("snippet.handle").render(),
+                                MessageTemplates.get("snippet.return").render(),
+                                MessageTemplates.get("snippet.end").render()
                         )
                 );
                 return entry;
             case CHECK:
                 bef = last.get(last.size() - 1);
-                String assign = "%s %s = %s;";
-                String condition = "%s %s= %s";
-                String ifCheck = "if (%s) {";
-                String body = "  %s.%s(%s);";
-                String end = "}";
-                Class<?>[] params = error.method().get().getParameterTypes();
+                MessageTemplate assign = MessageTemplates.get("snippet.declaration");
+                MessageTemplate condition = MessageTemplates.get("snippet.condition");
+                Class<?>[] params = errorMethod().getParameterTypes();
                 String[] arr = new String[3 + params.length];
                 String[] conditions = new String[params.length];
                 String[] vars = new String[params.length];
@@ -98,13 +113,18 @@ public class StackTraceCause {
                     conditions[i] = formatCondition(params[i], condition, i, "!", getCheckAgainst(throwable));
                     vars[i] = getVar(params[i], i);
                 }
-                arr[arr.length - 3] = String.format(ifCheck, String.join("&&", conditions));
-                arr[arr.length - 2] = String.format(body, error.clazz().get().getSimpleName(),
-                        error.method().get().getName(), String.join(",", vars));
-                arr[arr.length - 1] = end;
+                arr[arr.length - 3] = MessageTemplates.get("snippet.if").render(String.join("&&", conditions));
+                arr[arr.length - 2] = MessageTemplates.get("snippet.check-call").render(errorClass().getSimpleName(),
+                        errorMethod().getName(), String.join(",", vars));
+                arr[arr.length - 1] = MessageTemplates.get("snippet.end").render();
                 UserErrorEntry snippet =  UserErrorHelper.snippet(bef.line(),
                         arr);
-                return UserErrorEntry.from("Check the value").append(snippet);
+                return UserErrorEntry.from(MessageTemplates.get("help.check").render()).append(snippet);
+            case SOURCE:
+                bef = last.get(last.size() - 1);
+                UserErrorEntry source = SourceSnippets.snippet(bef.className(), bef.file(), bef.line(), 2);
+                if (source == null) return UserErrorEntry.from();
+                return UserErrorEntry.from(MessageTemplates.get("help.source").render(bef.line(), bef.file())).append(source);
             default:
                 return UserErrorEntry.from();
         }
@@ -118,15 +138,15 @@ public class StackTraceCause {
         return "";
     }
 
-    private String formatDeclaration(Class<?> clazz, int i, String template) {
+    private String formatDeclaration(Class<?> clazz, int i, MessageTemplate template) {
         String name = getVar(clazz, i);
-        return String.format(template, clazz.getSimpleName(),
+        return template.render(clazz.getSimpleName(),
                 name,
                 generateExample(clazz));
     }
 
-    private String formatCondition(Class<?> clazz, String template, int i, String cond, String checkAgainst) {
-        return String.format(template, getVar(clazz, i), cond, checkAgainst);
+    private String formatCondition(Class<?> clazz, MessageTemplate template, int i, String cond, String checkAgainst) {
+        return template.render(getVar(clazz, i), cond, checkAgainst);
     }
 
     private String getVar(Class<?> clazz, int i) {
@@ -135,15 +155,15 @@ public class StackTraceCause {
     }
 
     private String getErrorParamExample() {
-        Class<?>[] types = error.method().get().getParameterTypes();
-        if (types.length == 0) return "";
-        StringBuilder sb = new StringBuilder();
-        for (Class<?> type : types) {
-            sb.append(generateExample(type)).append(", ");
+        Class<?>[] types = errorMethod().getParameterTypes();
+        String[] examples = new String[types.length];
+        int count = 0;
+        for (int i = 0; i < types.length; i++) {
+            examples[i] = generateExample(types[i]);
+            // Parameters without an example at the end are left out
+            if (!examples[i].isEmpty()) count = i + 1;
         }
-        while (sb.charAt(sb.length() - 2) == ',')
-            sb.setLength(sb.length() - 2);
-        return sb.toString();
+        return String.join(", ", Arrays.asList(examples).subList(0, count));
     }
 
     private String generateExample(Class<?> clazz) {
@@ -155,7 +175,40 @@ public class StackTraceCause {
             return null;
         }
 
-        return ArrayUtils.toString(error.method().get().getParameterTypes());
+        return getErrorParameters();
+    }
+
+    /**
+     * Get the parameter types of the called method, computed once per cause
+     * */
+    private String getErrorParameters() {
+        if (errorParameters == null) {
+            errorParameters = ArrayUtils.toString(errorMethod().getParameterTypes());
+        }
+        return errorParameters;
+    }
+
+    private StackTraceLine caller() {
+        return last.get(last.size() - 1);
+    }
+
+    /*
+     * Only called once isResolved() returned true
+     * */
+    private Class<?> errorClass() {
+        return error.clazz().orElseThrow(IllegalStateException::new);
+    }
+
+    private Method errorMethod() {
+        return error.method().orElseThrow(IllegalStateException::new);
+    }
+
+    private Class<?> callerClass() {
+        return caller().clazz().orElseThrow(IllegalStateException::new);
+    }
+
+    private Method callerMethod() {
+        return caller().method().orElseThrow(IllegalStateException::new);
     }
 
     @Override
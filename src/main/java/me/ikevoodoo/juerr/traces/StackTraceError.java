@@ -1,61 +1,243 @@
 package me.ikevoodoo.juerr.traces;
 
 import me.ikevoodoo.juerr.UserError;
+import me.ikevoodoo.juerr.UserErrorEntry;
+import me.ikevoodoo.juerr.metrics.ErrorMetrics;
 
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.function.BiConsumer;
 
 public class StackTraceError {
-    private static final HashMap<Class<? extends Throwable>, BiConsumer<Throwable, UserError>> ERROR_HANDLERS = new HashMap<>();
-
-    static {
-        ERROR_HANDLERS.put(NullPointerException.class, (ex, error) -> {
-            List<StackTraceLine> lines = StackTraceHelper.getInvolved(ex);
-            StackTraceCause cause = StackTraceHelper.getCause(lines.get(0).clazz().get(), lines);
-
-            error.addHelp(cause.generateExplanation(StackTraceMode.TRIED_TO_CALL, ex));
-            error.addHelp(cause.generateHelp(StackTraceMode.TRIED_TO_CALL, ex));
-            error.addHelp(cause.generateHelp(StackTraceMode.CHECK, ex));
-
-            /*error.addHelp("Surround with a try-catch");
-            error.addHelp(UserErrorHelper.snippet(10,
-                    "try {",
-                    "    Files.readAllLines(null);",
-                    "} catch (NullPointerException exception) {",
-                    "    // Handle the exception",
-                    "    return;",
-                    "}"));*/
-        });
-
-        ERROR_HANDLERS.put(RuntimeException.class, (ex, error) -> {
-            List<StackTraceLine> lines = StackTraceHelper.getInvolved(ex);
-            StackTraceCause cause = StackTraceHelper.getCause(lines.get(0).clazz().get(), lines);
-
-            //error.addHelp(cause.generateExplanation(StackTraceMode.TRY_CATCH, ex));
-            error.addHelp(cause.generateHelp(StackTraceMode.TRY_CATCH, ex));
-        });
+
+    private static final int MAX_REASONS = 1024;
+    private static final String DECORATOR_PREFIX = "me.ikevoodoo.juerr.Reporting";
+
+    private static volatile FrameFilter frameFilter = new FrameFilter();
+
+    /**
+     * Set the rules deciding which frames are printed
+     *
+     * @param filter The FrameFilter
+     * */
+    public static void setFrameFilter(FrameFilter filter) {
+        frameFilter = filter;
+    }
+
+    public static FrameFilter getFrameFilter() {
+        return frameFilter;
+    }
+
+    static void handleNullPointer(Throwable ex, UserError error) {
+        StackTraceCause cause = findCause(ex);
+        if (cause == null || !cause.isResolved()) return;
+
+        addSource(cause, ex, error);
+        error.addHelp(cause.generateExplanation(StackTraceMode.TRIED_TO_CALL, ex));
+        error.addHelp(cause.generateHelp(StackTraceMode.TRIED_TO_CALL, ex));
+        error.addHelp(cause.generateHelp(StackTraceMode.CHECK, ex));
+
+        /*error.addHelp("Surround with a try-catch");
+        error.addHelp(UserErrorHelper.snippet(10,
+                "try {",
+                "    Files.readAllLines(null);",
+                "} catch (NullPointerException exception) {",
+                "    // Handle the exception",
+                "    return;",
+                "}"));*/
+    }
+
+    static void handleRuntime(Throwable ex, UserError error) {
+        StackTraceCause cause = findCause(ex);
+        if (cause == null || !cause.isResolved()) return;
+
+        addSource(cause, ex, error);
+        //error.addHelp(cause.generateExplanation(StackTraceMode.TRY_CATCH, ex));
+        error.addHelp(cause.generateHelp(StackTraceMode.TRY_CATCH, ex));
+    }
+
+    private static void addSource(StackTraceCause cause, Throwable ex, UserError error) {
+        UserErrorEntry source = cause.generateHelp(StackTraceMode.SOURCE, ex);
+        if (source.lineCount() > 0) error.addHelp(source);
+    }
+
+    /**
+     * Find the frames of the project that caused an error
+     *
+     * @return The cause, or null if the outermost frame does not belong to a loaded project
+     * */
+    private static StackTraceCause findCause(Throwable ex) {
+        List<StackTraceLine> lines = StackTraceHelper.getInvolved(ex);
+        if (lines.isEmpty()) return null;
+
+        Optional<Class<?>> root = lines.get(0).clazz();
+        return root.isPresent() ? StackTraceHelper.getCause(root.get(), lines) : null;
     }
 
     private final UserError error;
+    private int reasons;
+    private int omitted;
 
     public StackTraceError(UserError error) {
         this.error = error;
     }
 
     public void apply(Throwable throwable) {
-        for (StackTraceElement element : throwable.getStackTrace()) {
-            String className = element.getClassName();
-            if (className.contains("."))
-                className = className.substring(className.lastIndexOf('.') + 1);
-            className = className.replace("$", ".");
-            this.error.addReason(String.format("%s.%s(%s:%s)", className, element.getMethodName(), element.getFileName(), element.getLineNumber()));
+        long start = ErrorMetrics.start();
+        ErrorMetrics.recordException(throwable.getClass());
+        StackTraceElement[] trace = throwable.getStackTrace();
+        this.addFrames(trace, trace.length, "");
+
+        Set<Throwable> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        seen.add(throwable);
+        this.addEnclosed(throwable, trace, "", seen);
+        if (this.omitted > 0) {
+            this.error.addReason("... " + this.omitted + " lines omitted");
         }
 
-        BiConsumer<Throwable, UserError> consumer = ERROR_HANDLERS.get(throwable.getClass());
+        BiConsumer<Throwable, UserError> consumer = StackTraceHandlers.get(throwable.getClass());
         if (consumer != null) {
+            ErrorMetrics.recordHandler(StackTraceHandlers.getHandledType(throwable.getClass()));
             consumer.accept(throwable, error);
         }
+        ErrorMetrics.recordAnalysis(start);
+    }
+
+    /**
+     * Add the suppressed exceptions and the cause of a throwable as nested sections
+     *
+     * @param parent The throwable enclosing them
+     * @param parentTrace The stack trace of the parent
+     * @param indent The indentation of the parent
+     * @param seen The throwables already added, to detect cycles
+     * */
+    private void addEnclosed(Throwable parent, StackTraceElement[] parentTrace, String indent, Set<Throwable> seen) {
+        for (Throwable suppressed : parent.getSuppressed()) {
+            this.addNested(suppressed, parentTrace, "Suppressed: ", indent + "  ", seen);
+        }
+
+        Throwable cause = parent.getCause();
+        if (cause != null) {
+            this.addNested(cause, parentTrace, "Caused by: ", indent, seen);
+        }
+    }
+
+    private void addNested(Throwable throwable, StackTraceElement[] enclosingTrace, String label, String indent, Set<Throwable> seen) {
+        if (!seen.add(throwable)) {
+            this.addReason(indent + label + "[CIRCULAR REFERENCE: " + throwable + "]");
+            return;
+        }
+
+        StackTraceElement[] trace = throwable.getStackTrace();
+        int unique = uniqueFrames(trace, enclosingTrace);
+        this.addReason(indent + label + throwable);
+        this.addFrames(trace, unique, indent + "  ");
+        if (unique < trace.length) {
+            this.addReason(indent + "  ... " + (trace.length - unique) + " more");
+        }
+        this.addEnclosed(throwable, trace, indent, seen);
+    }
+
+    private void addFrames(StackTraceElement[] trace, int count, String indent) {
+        FrameFilter filter = frameFilter;
+        FrameCycles cycles = new FrameCycles(trace, count);
+        int maxDepth = filter.maxDepth();
+        int printed = 0;
+        int collapsed = 0;
+        int i = 0;
+        while (i < count) {
+            if (this.reasons >= MAX_REASONS) {
+                this.omitted += count - i;
+                return;
+            }
+
+            int period = cycles.period(i);
+            int end = period == 0 ? i + 1 : i + period;
+            for (int j = i; j < end; j++) {
+                String className = trace[j].getClassName();
+                if (isDecorator(className)) continue;
+                FrameFilter.Action action = filter.action(className);
+                if (action == FrameFilter.Action.EXCLUDE) continue;
+                if (action == FrameFilter.Action.COLLAPSE) {
+                    collapsed++;
+                    continue;
+                }
+
+                if (collapsed > 0) {
+                    this.addReason(indent + "(" + collapsed + " framework frames)");
+                    collapsed = 0;
+                    printed++;
+                }
+                if (printed >= maxDepth) {
+                    this.addReason(indent + "... " + (count - j) + " frames omitted");
+                    return;
+                }
+                this.addReason(FrameCache.entry(trace[j], indent.length() / 2));
+                printed++;
+            }
+
+            if (period == 0) {
+                i = end;
+                continue;
+            }
+
+            int repeats = cycles.repeats(i, period);
+            if (collapsed > 0) {
+                this.addReason(indent + "(" + collapsed + " framework frames)");
+                collapsed = 0;
+                printed++;
+            }
+            this.addReason(indent + "[frames " + i + ".." + (end - 1) + " repeated " + repeats + " times]");
+            printed++;
+            i += period * repeats;
+        }
+
+        if (collapsed > 0) {
+            this.addReason(indent + "(" + collapsed + " framework frames)");
+        }
+    }
+
+    /**
+     * Add a reason unless the error already holds the maximum amount, those are only counted
+     * */
+    private void addReason(String reason) {
+        this.addReason(UserErrorEntry.parse(reason));
+    }
+
+    private void addReason(UserErrorEntry reason) {
+        if (this.reasons >= MAX_REASONS) {
+            this.omitted++;
+            return;
+        }
+        this.reasons++;
+        this.error.addReason(reason);
+    }
+
+    /**
+     * Check if a frame belongs to the task wrappers of juerr's reporting executors, they are never shown
+     * */
+    private static boolean isDecorator(String className) {
+        return className.startsWith(DECORATOR_PREFIX);
+    }
+
+    /**
+     * Count the frames of a trace that are not shared with the end of its enclosing trace
+     *
+     * @param trace The stack trace
+     * @param enclosingTrace The stack trace enclosing it
+     * @return The amount of frames to print, the rest is shared
+     * */
+    private static int uniqueFrames(StackTraceElement[] trace, StackTraceElement[] enclosingTrace) {
+        int i = trace.length - 1;
+        int j = enclosingTrace.length - 1;
+        while (i >= 0 && j >= 0 && trace[i].equals(enclosingTrace[j])) {
+            i--;
+            j--;
+        }
+        return i + 1;
     }
 /*
     private void applyNPE(Throwable throwable) {
@@ -0,0 +1,23 @@
+package me.ikevoodoo.juerr.traces;
+
+import me.ikevoodoo.juerr.UserError;
+
+/**
+ * Generates reasons and help for a type of throwable
+ * <p>
+ * Implementations listed in {@code META-INF/services/me.ikevoodoo.juerr.traces.StackTraceHandler}
+ * are registered automatically.
+ *
+ * @see StackTraceHandlers#register(Class, java.util.function.BiConsumer)
+ * */
+public interface StackTraceHandler {
+
+    /**
+     * Get the type this handler handles, subclasses without a handler of their own are handled too
+     *
+     * @return The type of throwable
+     * */
+    Class<? extends Throwable> type();
+
+    void handle(Throwable throwable, UserError error);
+}
@@ -0,0 +1,112 @@
+package me.ikevoodoo.juerr.traces;
+
+import me.ikevoodoo.juerr.UserError;
+
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * The registry of the handlers {@link StackTraceError} runs for a throwable
+ * <p>
+ * A throwable is handled by the handler of its class or of its closest superclass that has one.
+ * The resolved handler is cached per throwable class, after warm-up dispatch is a single lookup.
+ * Registration is thread-safe and invalidates the cache.
+ * */
+public class StackTraceHandlers {
+
+    private static final ConcurrentHashMap<Class<? extends Throwable>, BiConsumer<Throwable, UserError>> HANDLERS = new ConcurrentHashMap<>();
+    private static volatile ClassValue<Resolved> resolved = newCache();
+
+    static {
+        register(NullPointerException.class, StackTraceError::handleNullPointer);
+        register(RuntimeException.class, StackTraceError::handleRuntime);
+        loadServices(Thread.currentThread().getContextClassLoader());
+    }
+
+    private StackTraceHandlers() {
+
+    }
+
+    /**
+     * Register a handler, replacing the handler registered for the same type
+     *
+     * @param type The type of throwable
+     * @param handler The handler
+     * */
+    public static void register(Class<? extends Throwable> type, BiConsumer<Throwable, UserError> handler) {
+        HANDLERS.put(type, handler);
+        resolved = newCache();
+    }
+
+    public static void register(StackTraceHandler handler) {
+        register(handler.type(), handler::handle);
+    }
+
+    public static void unregister(Class<? extends Throwable> type) {
+        if (HANDLERS.remove(type) != null) {
+            resolved = newCache();
+        }
+    }
+
+    /**
+     * Register every {@link StackTraceHandler} service visible to a classloader
+     *
+     * @param loader The classloader to look up services with, null for the system classloader
+     * */
+    public static void loadServices(ClassLoader loader) {
+        try {
+            for (StackTraceHandler handler : ServiceLoader.load(StackTraceHandler.class, loader)) {
+                register(handler);
+            }
+        } catch (ServiceConfigurationError e) {
+            // A broken service must not prevent errors from being printed
+        }
+    }
+
+    /**
+     * Find the handler for a throwable class
+     *
+     * @param type The class of the throwable
+     * @return The handler, or null if neither the class nor a superclass has one
+     * */
+    public static BiConsumer<Throwable, UserError> get(Class<? extends Throwable> type) {
+        return resolved.get(type).handler;
+    }
+
+    /**
+     * Find the type whose handler handles a throwable class
+     *
+     * @param type The class of the throwable
+     * @return The registered type, or null if neither the class nor a superclass has a handler
+     * */
+    public static Class<?> getHandledType(Class<? extends Throwable> type) {
+        return resolved.get(type).type;
+    }
+
+    private static ClassValue<Resolved> newCache() {
+        return new ClassValue<Resolved>() {
+            @Override
+            protected Resolved computeValue(Class<?> type) {
+                for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+                    BiConsumer<Throwable, UserError> handler = HANDLERS.get(current);
+                    if (handler != null) return new Resolved(current, handler);
+                }
+                return Resolved.NONE;
+            }
+        };
+    }
+
+    private static final class Resolved {
+        private static final Resolved NONE = new Resolved(null, null);
+
+        private final Class<?> type;
+        private final BiConsumer<Throwable, UserError> handler;
+
+        private Resolved(Class<?> type, BiConsumer<Throwable, UserError> handler) {
+            this.type = type;
+            this.handler = handler;
+        }
+    }
+}
@@ -1,17 +1,10 @@
 package me.ikevoodoo.juerr.traces;
 
 import me.ikevoodoo.juerr.ProjectInfo;
-import sun.misc.SharedSecrets;
-import sun.reflect.Reflection;
 
-import java.lang.invoke.MethodHandle;
-import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class StackTraceHelper {
 
@@ -19,45 +12,60 @@ public class StackTraceHelper {
 
     }
 
+    /**
+     * Get all the lines of a throwable's stack trace, outermost frame first
+     * <p>
+     * The returned lines are resolved lazily, frames that are never looked at never load their class.
+     *
+     * @param throwable The throwable to read the stack trace from
+     * @return The lines of the stack trace
+     * */
     public static List<StackTraceLine> getInvolved(Throwable throwable) {
-        List<StackTraceLine> lines = Arrays.stream(throwable.getStackTrace())
-                .map(element -> new StackTraceLine(
-                        getClass(element.getClassName()),
-                        getDeclaredMethod(element.getClassName(), element.getMethodName()),
-                        element.getLineNumber(),
-                        element.getFileName()))
-                .collect(Collectors.toList());
-        Collections.reverse(lines);
-        return lines;
+        return new LazyStackTraceLines(throwable.getStackTrace());
     }
 
+    /**
+     * Find the cause of an error, the project owned frames closest to the error and the frame they called
+     * <p>
+     * Ownership is checked by class name, frames are never resolved to find the cause.
+     *
+     * @param clazz The class the project was loaded with
+     * @param stackTraceLines The lines of the stack trace, outermost frame first
+     * @return The cause, or null if the project is not loaded or owns none of the lines
+     * */
     public static StackTraceCause getCause(Class<?> clazz, List<StackTraceLine> stackTraceLines) {
         if (!ProjectInfo.isLoaded(clazz)) return null;
 
-
-        List<Class<?>> classes = ProjectInfo.getClasses(clazz);
-        List<StackTraceLine> last = new ArrayList<>();
-
-        for (StackTraceLine line : stackTraceLines) {
-            Class<?> cl = line.clazz().get();
-            if (classes.contains(cl)) {
-                last.add(line);
-            }
+        int deepest = stackTraceLines.size() - 1;
+        while (deepest >= 0 && !isOwned(clazz, stackTraceLines.get(deepest))) {
+            deepest--;
         }
+        if (deepest < 0) return null;
 
-        if (last.size() > 0) {
-            int index = stackTraceLines.indexOf(last.get(last.size() - 1));
-
-            return new StackTraceCause(last, stackTraceLines.get(Math.min(stackTraceLines.size() - 2, index) + 1));
+        int first = deepest;
+        while (first > 0 && isOwned(clazz, stackTraceLines.get(first - 1))) {
+            first--;
         }
 
-        return null;
+        List<StackTraceLine> last = new ArrayList<>(stackTraceLines.subList(first, deepest + 1));
+        return new StackTraceCause(last, stackTraceLines.get(Math.min(stackTraceLines.size() - 1, deepest + 1)));
+    }
+
+    /**
+     * Format a frame the way reasons show it, like {@code Outer.Inner.method(File.java:12)}
+     *
+     * @param element The frame
+     * @return The formatted frame
+     * */
+    public static String format(StackTraceElement element) {
+        return FrameCache.format(element);
     }
 
     public static Class<?> getClass(String className) {
         try {
-            return Class.forName(className);
-        } catch (ClassNotFoundException e) {
+            // Don't initialize, the class may be the one whose static initializer failed
+            return Class.forName(className, false, StackTraceHelper.class.getClassLoader());
+        } catch (ClassNotFoundException | LinkageError e) {
             return null;
         }
     }
@@ -65,12 +73,27 @@ public class StackTraceHelper {
     public static Method getDeclaredMethod(String className, String name) {
         Class<?> clazz = getClass(className);
         if (clazz == null) return null;
-        for (Method m : clazz.getDeclaredMethods()) {
-            if (m.getName().equals(name)) {
-                return m;
-            }
-        }
-        return null;
+        return getDeclaredMethod(clazz, name);
+    }
+
+    public static Method getDeclaredMethod(Class<?> clazz, String name) {
+        return MethodIndex.of(clazz).find(name, -1);
+    }
+
+    /**
+     * Get the declared method a frame belongs to, telling overloads apart by line number
+     *
+     * @param clazz The class declaring the method
+     * @param name The name of the method
+     * @param line The line number of the frame
+     * @return The method, or null if the class declares no method with that name
+     * */
+    public static Method getDeclaredMethod(Class<?> clazz, String name, int line) {
+        return MethodIndex.of(clazz).find(name, line);
+    }
+
+    private static boolean isOwned(Class<?> clazz, StackTraceLine line) {
+        return line.className() != null && ProjectInfo.isProjectClass(clazz, line.className());
     }
 
 }
@@ -3,28 +3,75 @@ package me.ikevoodoo.juerr.traces;
 import java.lang.reflect.Method;
 import java.util.Optional;
 
+/**
+ * A single frame of a stack trace
+ * <p>
+ * Lines created from a {@link StackTraceElement} are resolved lazily, the class and method
+ * are only looked up the first time they are requested.
+ * */
 public class StackTraceLine {
 
-
-
-    private final Class<?> clazz;
-    private final Method method;
+    private final String className;
+    private final String methodName;
     private final int line;
     private final String file;
 
+    private volatile Class<?> clazz;
+    private volatile Method method;
+    private volatile boolean classResolved;
+    private volatile boolean methodResolved;
+
     public StackTraceLine(Class<?> clazz, Method method, int line, String file) {
+        this.className = clazz == null ? null : clazz.getName();
+        this.methodName = method == null ? null : method.getName();
+        this.line = line;
+        this.file = file;
         this.clazz = clazz;
         this.method = method;
+        this.classResolved = true;
+        this.methodResolved = true;
+    }
+
+    StackTraceLine(String className, String methodName, int line, String file) {
+        this.className = className;
+        this.methodName = methodName;
         this.line = line;
         this.file = file;
     }
 
+    /**
+     * Create a lazily resolved line from a stack trace element
+     *
+     * @param element The element to wrap
+     * @return A line that resolves its class and method on first access
+     * */
+    public static StackTraceLine of(StackTraceElement element) {
+        return new StackTraceLine(element.getClassName(), element.getMethodName(), element.getLineNumber(), element.getFileName());
+    }
+
     public Optional<Class<?>> clazz() {
-        return Optional.ofNullable(clazz);
+        if (!this.classResolved) {
+            this.clazz = StackTraceHelper.getClass(this.className);
+            this.classResolved = true;
+        }
+        return Optional.ofNullable(this.clazz);
     }
 
     public Optional<Method> method() {
-        return Optional.ofNullable(method);
+        if (!this.methodResolved) {
+            Class<?> resolved = clazz().orElse(null);
+            this.method = resolved == null ? null : StackTraceHelper.getDeclaredMethod(resolved, this.methodName, this.line);
+            this.methodResolved = true;
+        }
+        return Optional.ofNullable(this.method);
+    }
+
+    public String className() {
+        return className;
+    }
+
+    public String methodName() {
+        return methodName;
     }
 
     public int line() {
@@ -37,6 +84,6 @@ public class StackTraceLine {
 
     @Override
     public String toString() {
-        return String.format("StackTraceLine[clazz=%s, method=%s, line=%s, file=%s]", clazz, method, line, file);
+        return String.format("StackTraceLine[clazz=%s, method=%s, line=%s, file=%s]", className, methodName, line, file);
     }
 }
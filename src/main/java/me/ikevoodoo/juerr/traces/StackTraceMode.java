@@ -4,6 +4,7 @@ public enum StackTraceMode {
 
     TRIED_TO_CALL,
     TRY_CATCH,
-    CHECK
+    CHECK,
+    SOURCE
 
 }
@@ -0,0 +1,150 @@
+package me.ikevoodoo.juerr;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncPrinterTest {
+
+    @Test
+    void dropNewestDiscardsTheNewText() throws InterruptedException {
+        BlockingPrinter out = new BlockingPrinter();
+        AsyncPrinter printer = new AsyncPrinter(out, 2, AsyncPrinter.OverflowPolicy.DROP_NEWEST);
+        fill(printer, out);
+
+        printer.print("d");
+        assertEquals(1, printer.dropped());
+
+        out.release();
+        printer.close();
+        assertEquals(Arrays.asList("a", "b", "c"), out.texts());
+    }
+
+    @Test
+    void dropOldestDiscardsTheOldestBufferedText() throws InterruptedException {
+        BlockingPrinter out = new BlockingPrinter();
+        AsyncPrinter printer = new AsyncPrinter(out, 2, AsyncPrinter.OverflowPolicy.DROP_OLDEST);
+        fill(printer, out);
+
+        printer.print("d");
+        assertEquals(1, printer.dropped());
+
+        out.release();
+        printer.close();
+        assertEquals(Arrays.asList("a", "c", "d"), out.texts());
+    }
+
+    @Test
+    void blockWaitsForRoom() throws InterruptedException {
+        BlockingPrinter out = new BlockingPrinter();
+        AsyncPrinter printer = new AsyncPrinter(out, 2, AsyncPrinter.OverflowPolicy.BLOCK);
+        fill(printer, out);
+
+        Thread producer = new Thread(() -> printer.print("d"));
+        producer.start();
+        producer.join(100);
+        assertTrue(producer.isAlive(), "The producer should wait while the buffer is full");
+
+        out.release();
+        producer.join(TimeUnit.SECONDS.toMillis(5));
+        printer.close();
+        assertEquals(0, printer.dropped());
+        assertEquals(Arrays.asList("a", "b", "c", "d"), out.texts());
+    }
+
+    @Test
+    void closeWritesEverythingBufferedInOrder() throws InterruptedException {
+        BlockingPrinter out = new BlockingPrinter();
+        AsyncPrinter printer = new AsyncPrinter(out, 128, AsyncPrinter.OverflowPolicy.BLOCK);
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            printer.print(Integer.toString(i));
+            expected.add(Integer.toString(i));
+        }
+
+        out.release();
+        printer.close();
+        assertEquals(expected, out.texts());
+    }
+
+    @Test
+    void printsAfterCloseAreWrittenRightAway() {
+        BlockingPrinter out = new BlockingPrinter();
+        out.release();
+        AsyncPrinter printer = new AsyncPrinter(out);
+        printer.close();
+
+        printer.print("late");
+        assertEquals(Collections.singletonList("late"), out.texts());
+    }
+
+    @Test
+    void aFailingPrinterDoesNotStopTheWriter() throws InterruptedException {
+        BlockingPrinter out = new BlockingPrinter();
+        out.release();
+        AsyncPrinter printer = new AsyncPrinter(out, 4, AsyncPrinter.OverflowPolicy.BLOCK);
+
+        printer.print("fail");
+        for (int i = 0; i < 10; i++) {
+            printer.print("x");
+        }
+        printer.flush();
+        printer.close();
+        assertEquals(10, out.texts().size());
+    }
+
+    /**
+     * Print "a" and wait until the writer thread is stuck writing it, then buffer "b" and "c"
+     * */
+    private static void fill(AsyncPrinter printer, BlockingPrinter out) throws InterruptedException {
+        printer.print("a");
+        assertTrue(out.writing.await(5, TimeUnit.SECONDS));
+        printer.print("b");
+        printer.print("c");
+    }
+
+    private static final class BlockingPrinter extends Printer<Void> {
+        private final CountDownLatch writing = new CountDownLatch(1);
+        private final CountDownLatch released = new CountDownLatch(1);
+        private final List<String> texts = Collections.synchronizedList(new ArrayList<>());
+
+        private BlockingPrinter() {
+            super(null);
+        }
+
+        @Override
+        public void printf(String message, Object... args) {
+            print(String.format(message, args));
+        }
+
+        @Override
+        public void print(CharSequence text) {
+            this.writing.countDown();
+            try {
+                this.released.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (text.toString().equals("fail")) throw new AssertionError("failing printer");
+            this.texts.add(text.toString());
+        }
+
+        private void release() {
+            this.released.countDown();
+        }
+
+        private List<String> texts() {
+            synchronized (this.texts) {
+                return new ArrayList<>(this.texts);
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package me.ikevoodoo.juerr;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CrashJournalTest {
+
+    private static final int HEADER_SIZE = 16;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsBackEveryRecord() throws IOException {
+        Path path = write("first", "second", "third");
+        assertEquals(Arrays.asList("first", "second", "third"), messages(path));
+    }
+
+    @Test
+    void skipsAnUncommittedRecordWithoutOverwritingTheRest() throws IOException {
+        Path path = write("first", "second", "third");
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            buffer.putInt(nextRecord(buffer, HEADER_SIZE) + 4, 0);
+        }
+        assertEquals(Arrays.asList("first", "third"), messages(path));
+
+        CrashJournal.open(path, 0).print("fourth");
+        assertEquals(Arrays.asList("first", "third", "fourth"), messages(path));
+    }
+
+    @Test
+    void skipsAZeroLengthSlotWithoutOverwritingTheRest() throws IOException {
+        Path path = write("first", "second", "third");
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            int offset = nextRecord(buffer, HEADER_SIZE);
+            int end = nextRecord(buffer, offset);
+            for (int i = offset; i < end; i++) {
+                buffer.put(i, (byte) 0);
+            }
+        }
+        assertEquals(Arrays.asList("first", "third"), messages(path));
+
+        CrashJournal.open(path, 0).print("fourth");
+        assertEquals(Arrays.asList("first", "third", "fourth"), messages(path));
+    }
+
+    @Test
+    void dropsRecordsThatDoNotFit() throws IOException {
+        CrashJournal journal = CrashJournal.open(this.directory.resolve("small.journal"), 128);
+        for (int i = 0; i < 10; i++) {
+            journal.print("record " + i);
+        }
+        assertEquals(10, messages(this.directory.resolve("small.journal")).size() + journal.dropped());
+    }
+
+    private Path write(String... messages) throws IOException {
+        Path path = this.directory.resolve("crash.journal");
+        CrashJournal journal = CrashJournal.open(path, 4096);
+        for (String message : messages) {
+            journal.print(message);
+        }
+        return path;
+    }
+
+    /**
+     * The offset of the record after the one at the given offset, records are aligned to 8 bytes
+     * */
+    private static int nextRecord(MappedByteBuffer buffer, int offset) {
+        return offset + ((8 + buffer.getInt(offset) + 7) & -8);
+    }
+
+    private static List<String> messages(Path path) throws IOException {
+        List<String> messages = new ArrayList<>();
+        for (CrashJournal.Entry entry : CrashJournal.read(path)) {
+            messages.add(entry.error().message());
+        }
+        return messages;
+    }
+}
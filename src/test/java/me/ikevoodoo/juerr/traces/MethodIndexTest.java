@@ -0,0 +1,75 @@
+package me.ikevoodoo.juerr.traces;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class MethodIndexTest {
+
+    @Test
+    void picksTheOverloadContainingTheLine() {
+        Overloads overloads = new Overloads();
+        assertParameters(Overloads.class, overloads.call(1), int.class);
+        assertParameters(Overloads.class, overloads.call("text"), String.class);
+        assertParameters(Overloads.class, overloads.call(1, 2L), int.class, long.class);
+    }
+
+    @Test
+    void picksTheOverloadOfAStaticMethod() {
+        assertParameters(Overloads.class, Overloads.make(), new Class<?>[0]);
+        assertParameters(Overloads.class, Overloads.make(1), int.class);
+    }
+
+    @Test
+    void returnsTheOnlyMethodWithoutALine() {
+        Method method = StackTraceHelper.getDeclaredMethod(Overloads.class, "single", -1);
+        assertNotNull(method);
+        assertEquals("single", method.getName());
+    }
+
+    @Test
+    void returnsNullForUnknownMethods() {
+        assertNull(StackTraceHelper.getDeclaredMethod(Overloads.class, "missing", 10));
+    }
+
+    private static void assertParameters(Class<?> clazz, StackTraceElement frame, Class<?>... parameters) {
+        Method method = StackTraceHelper.getDeclaredMethod(clazz, frame.getMethodName(), frame.getLineNumber());
+        assertNotNull(method, frame.toString());
+        assertArrayEquals(parameters, method.getParameterTypes(), frame.toString());
+    }
+
+    @SuppressWarnings("unused")
+    private static final class Overloads {
+
+        private StackTraceElement call(int value) {
+            return new Throwable().getStackTrace()[0];
+        }
+
+        private StackTraceElement call(String value) {
+            String ignored = value.trim();
+            return new Throwable().getStackTrace()[0];
+        }
+
+        private StackTraceElement call(int value, long other) {
+            long sum = value + other;
+            return new Throwable().getStackTrace()[0];
+        }
+
+        private static StackTraceElement make() {
+            return new Throwable().getStackTrace()[0];
+        }
+
+        private static StackTraceElement make(int value) {
+            return new Throwable().getStackTrace()[0];
+        }
+
+        private void single() {
+
+        }
+    }
+}